@@ -0,0 +1,13 @@
+#!/usr/bin/env bash
+# Build the backend and the benchmarks, run JMH and write JSON results named after the current commit,
+# e.g. ./run-benchmarks.sh PortfolioRevaluation -p openTrades=100000
+set -euo pipefail
+cd "$(dirname "$0")"
+
+(cd .. && mvn -B -q install -DskipTests)
+mvn -B -q package
+
+mkdir -p results
+revision=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+java -jar target/benchmarks.jar -rf json -rff "results/jmh-${revision}.json" "$@"
+echo "Results written to results/jmh-${revision}.json"
@@ -0,0 +1,21 @@
+#!/usr/bin/env bash
+# Build the backend with the in-memory H2 profile, start it, run the HTTP load test against it and
+# write JSON results named after the current commit, e.g.
+# ./run-loadtest.sh --concurrency=32 --duration=120 --compare=results/load-abc1234.json
+set -euo pipefail
+cd "$(dirname "$0")"
+
+(cd .. && mvn -B -q install -DskipTests -Ploadtest)
+mvn -B -q package
+
+mkdir -p results
+revision=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+port=${LOADTEST_PORT:-8093}
+
+java -jar ../target/crypto-portfolio-1.0.0-exec.jar --spring.profiles.active=loadtest --server.port="$port" \
+    > results/loadtest-server.log 2>&1 &
+server=$!
+trap 'kill "$server" 2>/dev/null || true' EXIT
+
+java -cp target/benchmarks.jar com.portfolio.benchmark.LoadTest --url="http://localhost:${port}" \
+    --label="$revision" --out="results/load-${revision}.json" "$@"
@@ -0,0 +1,86 @@
+package com.portfolio.benchmark;
+
+import com.portfolio.PortfolioApplication;
+import com.portfolio.model.Investment;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.repository.TradeRepository;
+import com.portfolio.service.InvestmentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// InvestmentService revaluing every investment lot of a trade: its set-based UPDATE, run in the
+// service's transaction against the in-memory H2 database of the loadtest profile. Absolute times
+// are H2's, not MySQL's; the statement and the path through the service are the real ones.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class InvestmentRevaluationBenchmark {
+
+    private static final int INSERT_BATCH = 5000;
+
+    @Param({"1000", "100000"})
+    public int investments;
+
+    private ConfigurableApplicationContext context;
+    private InvestmentService investmentService;
+    private Trade trade;
+    private BigDecimal[] prices;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PortfolioApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("loadtest")
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run();
+        investmentService = context.getBean(InvestmentService.class);
+
+        Trade synthetic = SyntheticTrades.trades(1, TradeStatus.OPEN, 29).get(0);
+        synthetic.setId(null);
+        trade = context.getBean(TradeRepository.class).save(synthetic);
+        insertLots(context.getBean(JdbcTemplate.class), SyntheticTrades.investments(trade, investments, 31));
+
+        Random random = new Random(37);
+        prices = new BigDecimal[16];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = SyntheticTrades.price(trade.getEntryPrice().doubleValue(), random);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Trade revalueAllLots() {
+        trade.setCurrentPrice(prices[tick++ & 15]);
+        investmentService.updateAllInvestmentsForTrade(trade);
+        return trade;
+    }
+
+    private void insertLots(JdbcTemplate jdbcTemplate, List<Investment> lots) {
+        for (int from = 0; from < lots.size(); from += INSERT_BATCH) {
+            List<Object[]> rows = lots.subList(from, Math.min(from + INSERT_BATCH, lots.size())).stream()
+                    .map(lot -> new Object[]{trade.getId(), lot.getAmount(), lot.getPriceAtInvestment(),
+                            Timestamp.valueOf(lot.getInvestmentDate())})
+                    .toList();
+            jdbcTemplate.batchUpdate("INSERT INTO investments (trade_id, amount, price_at_investment, investment_date) "
+                    + "VALUES (?, ?, ?, ?)", rows);
+        }
+    }
+}
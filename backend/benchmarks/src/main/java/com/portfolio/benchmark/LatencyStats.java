@@ -0,0 +1,86 @@
+package com.portfolio.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Latencies and error counts per endpoint; each load-test worker records its own, merged after the run
+final class LatencyStats {
+
+    private final Map<String, Samples> endpoints = new TreeMap<>();
+
+    void record(String endpoint, long nanos, boolean error) {
+        endpoints.computeIfAbsent(endpoint, name -> new Samples()).add(nanos, error);
+    }
+
+    void addAll(LatencyStats other) {
+        other.endpoints.forEach((endpoint, samples) ->
+                endpoints.computeIfAbsent(endpoint, name -> new Samples()).addAll(samples));
+    }
+
+    // Per-endpoint results over a measured period, followed by a TOTAL row
+    List<LoadTest.EndpointResult> results(double seconds) {
+        List<LoadTest.EndpointResult> results = new ArrayList<>();
+        Samples total = new Samples();
+        endpoints.forEach((endpoint, samples) -> {
+            results.add(samples.result(endpoint, seconds));
+            total.addAll(samples);
+        });
+        results.add(total.result("TOTAL", seconds));
+        return results;
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int count;
+        private long errors;
+
+        void add(long latency, boolean error) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latency;
+            if (error) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            if (count + other.count > nanos.length) {
+                nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, count + other.count));
+            }
+            System.arraycopy(other.nanos, 0, nanos, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        LoadTest.EndpointResult result(String endpoint, double seconds) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            double mean = count > 0 ? Arrays.stream(sorted).average().orElse(0) : 0;
+            return new LoadTest.EndpointResult(endpoint, count, errors, round(count / seconds),
+                    millis(mean), millis(percentile(sorted, 50)), millis(percentile(sorted, 95)),
+                    millis(percentile(sorted, 99)), millis(count > 0 ? sorted[count - 1] : 0));
+        }
+
+        // Nearest-rank percentile
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p / 100 * sorted.length);
+            return sorted[Math.max(rank - 1, 0)];
+        }
+
+        private static double millis(double nanos) {
+            return Math.round(nanos / 1_000) / 1_000.0;
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 10) / 10.0;
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package com.portfolio.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * HTTP load generator for a running backend; run-loadtest.sh starts one on an in-memory H2
+ * database and runs this against it.
+ * <p>
+ * Seeds wallets and trades, then runs weighted scenarios (dashboard polling, trade creation,
+ * closes, investment adds, wallet summary reads) from a fixed number of workers, first for a
+ * warm-up and then for the measured period. Throughput and p50/p95/p99 latency per endpoint are
+ * printed and written as JSON; --compare prints the change against an earlier result file.
+ * <pre>
+ * java -cp target/benchmarks.jar com.portfolio.benchmark.LoadTest --concurrency=32 --duration=120 \
+ *     --mix=dashboard:60,create:10,close:10,invest:10,wallets:10 --compare=results/load-abc1234.json
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final String DEFAULT_MIX = "dashboard:40,create:10,close:10,invest:15,wallets:25";
+
+    private final Options options;
+    private final HttpClient client;
+    private final ObjectMapper mapper;
+    private final OpenTrades openTrades = new OpenTrades();
+    private final List<Long> walletIds = new ArrayList<>();
+    private final Map<Scenario, Integer> mix;
+    private final int totalWeight;
+
+    private LoadTest(Options options) {
+        this.options = options;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        this.mix = Scenario.parseMix(options.mix());
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTest(Options.parse(args)).run();
+    }
+
+    private void run() throws Exception {
+        awaitServer();
+        seed();
+
+        long warmupEnd = System.nanoTime() + Duration.ofSeconds(options.warmup()).toNanos();
+        long end = warmupEnd + Duration.ofSeconds(options.duration()).toNanos();
+        System.out.printf("Running %s with %d workers: %ds warm-up, %ds measured%n",
+                mix, options.concurrency(), options.warmup(), options.duration());
+
+        ExecutorService workers = Executors.newFixedThreadPool(options.concurrency());
+        List<Future<LatencyStats>> results = new ArrayList<>();
+        for (int i = 0; i < options.concurrency(); i++) {
+            Worker worker = new Worker(new Random(options.seed() + i), warmupEnd, end);
+            results.add(workers.submit(worker::run));
+        }
+        LatencyStats stats = new LatencyStats();
+        for (Future<LatencyStats> result : results) {
+            stats.addAll(result.get());
+        }
+        workers.shutdown();
+
+        RunResult run = new RunResult(options.label(), options.url(), LocalDateTime.now().toString(),
+                options.concurrency(), options.duration(), options.warmup(), options.mix(), options.seedTrades(),
+                stats.results(options.duration()));
+        print(run);
+        Path out = Path.of(options.out() != null ? options.out()
+                : "results/load-" + options.label() + "-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+                        .format(LocalDateTime.now()) + ".json");
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(out.toFile(), run);
+        System.out.println("Results written to " + out);
+        if (options.compare() != null) {
+            compare(mapper.readValue(Path.of(options.compare()).toFile(), RunResult.class), run);
+        }
+    }
+
+    // Wait for the backend to report UP (it may still be starting)
+    private void awaitServer() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(options.startupTimeout()).toNanos();
+        while (true) {
+            try {
+                HttpResponse<String> health = client.send(get("/actuator/health").build(),
+                        HttpResponse.BodyHandlers.ofString());
+                if (health.statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Backend at " + options.url() + " did not come up");
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    // Wallets for the synthetic exchanges, closed and open trades, then the open trade pool
+    private void seed() throws IOException, InterruptedException {
+        for (String exchange : SyntheticTrades.EXCHANGES) {
+            send(post("/api/wallets", Map.of("exchangeName", exchange, "totalBalance", 100000)));
+        }
+        if (options.seedTrades() > 0) {
+            int open = options.seedTrades() / 4;
+            List<Trade> trades = new ArrayList<>(SyntheticTrades.trades(options.seedTrades() - open, TradeStatus.CLOSED, 41));
+            trades.addAll(SyntheticTrades.trades(open, TradeStatus.OPEN, 43));
+            ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+            for (Trade trade : trades) {
+                ndjson.write(mapper.writeValueAsBytes(trade));
+                ndjson.write('\n');
+            }
+            HttpResponse<String> imported = send(get("/api/trades/import")
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(ndjson.toByteArray())));
+            System.out.println("Seeded trades: " + imported.body());
+        }
+        for (JsonNode wallet : mapper.readTree(send(get("/api/wallets")).body())) {
+            walletIds.add(wallet.get("id").asLong());
+        }
+        for (JsonNode trade : mapper.readTree(send(get("/api/trades/status/OPEN")).body())) {
+            openTrades.add(new OpenTrade(trade.get("id").asLong(), trade.get("entryPrice").decimalValue()));
+        }
+        System.out.printf("Seeded %d wallets, %d open trades%n", walletIds.size(), openTrades.size());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            System.out.println("Seed request failed: " + response.statusCode() + " " + response.uri());
+        }
+        return response;
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(options.url() + path)).timeout(Duration.ofSeconds(60));
+    }
+
+    private HttpRequest.Builder post(String path, Object body) throws IOException {
+        return json(get(path), "POST", body);
+    }
+
+    private HttpRequest.Builder json(HttpRequest.Builder request, String method, Object body) throws IOException {
+        return request.header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)));
+    }
+
+    private static void print(RunResult run) {
+        System.out.printf("%n%-44s %9s %8s %8s %8s %8s %8s %7s%n",
+                "endpoint", "requests", "req/s", "mean ms", "p50 ms", "p95 ms", "p99 ms", "errors");
+        for (EndpointResult e : run.endpoints()) {
+            System.out.printf("%-44s %9d %8.1f %8.2f %8.2f %8.2f %8.2f %7d%n", e.endpoint(), e.requests(),
+                    e.throughput(), e.meanMs(), e.p50Ms(), e.p95Ms(), e.p99Ms(), e.errors());
+        }
+    }
+
+    private static void compare(RunResult before, RunResult after) {
+        Map<String, EndpointResult> previous = new HashMap<>();
+        before.endpoints().forEach(e -> previous.put(e.endpoint(), e));
+        System.out.printf("%nCompared with %s (%s):%n%-44s %16s %16s %16s%n", before.label(), before.startedAt(),
+                "endpoint", "req/s", "p95 ms", "p99 ms");
+        for (EndpointResult e : after.endpoints()) {
+            EndpointResult p = previous.get(e.endpoint());
+            if (p == null) {
+                continue;
+            }
+            System.out.printf("%-44s %16s %16s %16s%n", e.endpoint(), change(p.throughput(), e.throughput()),
+                    change(p.p95Ms(), e.p95Ms()), change(p.p99Ms(), e.p99Ms()));
+        }
+    }
+
+    private static String change(double before, double after) {
+        return before == 0 ? String.format("%.2f", after)
+                : String.format("%.2f (%+.0f%%)", after, (after - before) * 100 / before);
+    }
+
+    // One load-generating thread; records only the requests started in the measured period
+    private final class Worker {
+
+        private final Random random;
+        private final long warmupEnd;
+        private final long end;
+        private final LatencyStats stats = new LatencyStats();
+        // Last ETag per polled URL, sent back as If-None-Match like a browser cache
+        private final Map<String, String> etags = new HashMap<>();
+
+        Worker(Random random, long warmupEnd, long end) {
+            this.random = random;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+        }
+
+        LatencyStats run() throws Exception {
+            while (System.nanoTime() < end) {
+                pick().run(this);
+                if (options.thinkMs() > 0) {
+                    Thread.sleep(options.thinkMs());
+                }
+            }
+            return stats;
+        }
+
+        private Scenario pick() {
+            int ticket = random.nextInt(totalWeight);
+            for (Map.Entry<Scenario, Integer> entry : mix.entrySet()) {
+                ticket -= entry.getValue();
+                if (ticket < 0) {
+                    return entry.getKey();
+                }
+            }
+            throw new IllegalStateException("Empty scenario mix");
+        }
+
+        void dashboard() {
+            poll("/api/trades");
+            poll("/api/trades/summary");
+            poll("/api/wallets/summaries");
+        }
+
+        void createTrade() throws IOException {
+            int coin = random.nextInt(SyntheticTrades.COINS.length);
+            BigDecimal entryPrice = SyntheticTrades.price(SyntheticTrades.BASE_PRICES[coin], random);
+            Map<String, Object> trade = new LinkedHashMap<>();
+            trade.put("coin", SyntheticTrades.COINS[coin]);
+            trade.put("tradeType", random.nextBoolean() ? "LONG" : "SHORT");
+            trade.put("entryPrice", entryPrice);
+            trade.put("quantity", BigDecimal.valueOf(1000 / SyntheticTrades.BASE_PRICES[coin]).setScale(8, RoundingMode.HALF_UP));
+            trade.put("leverage", 1 + random.nextInt(20));
+            trade.put("exchange", SyntheticTrades.EXCHANGES[random.nextInt(SyntheticTrades.EXCHANGES.length)]);
+            trade.put("status", "OPEN");
+            trade.put("tradeDate", LocalDateTime.now().withNano(0));
+            HttpResponse<byte[]> response = call("POST /api/trades", post("/api/trades", trade));
+            if (response != null && response.statusCode() == 201) {
+                openTrades.add(new OpenTrade(mapper.readTree(response.body()).get("id").asLong(), entryPrice));
+            }
+        }
+
+        void closeTrade() throws IOException {
+            OpenTrade trade = openTrades.take(random);
+            if (trade == null) {
+                createTrade();
+                return;
+            }
+            BigDecimal exitPrice = SyntheticTrades.price(trade.entryPrice().doubleValue(), random);
+            call("PATCH /api/trades/{id}/close", json(get("/api/trades/" + trade.id() + "/close"), "PATCH",
+                    Map.of("exitPrice", exitPrice, "closeReason", "MANUAL")));
+        }
+
+        void addInvestment() throws IOException {
+            OpenTrade trade = openTrades.peek(random);
+            if (trade == null) {
+                createTrade();
+                return;
+            }
+            Map<String, Object> investment = Map.of(
+                    "amount", BigDecimal.valueOf(10 + random.nextInt(500)),
+                    "priceAtInvestment", SyntheticTrades.price(trade.entryPrice().doubleValue(), random),
+                    "investmentDate", LocalDateTime.now().withNano(0));
+            call("POST /api/trades/{id}/investments", post("/api/trades/" + trade.id() + "/investments", investment));
+        }
+
+        void walletSummaries() {
+            call("GET /api/wallets/summaries", get("/api/wallets/summaries").header("Accept-Encoding", "gzip"));
+            long walletId = walletIds.get(random.nextInt(walletIds.size()));
+            call("GET /api/wallets/{id}/summary", get("/api/wallets/" + walletId + "/summary"));
+        }
+
+        // Conditional GET, as the dashboard's browser would send it
+        private void poll(String path) {
+            HttpRequest.Builder request = get(path).header("Accept-Encoding", "gzip");
+            String etag = etags.get(path);
+            if (etag != null) {
+                request.header("If-None-Match", etag);
+            }
+            HttpResponse<byte[]> response = call("GET " + path + " (poll)", request);
+            if (response != null) {
+                response.headers().firstValue("ETag").ifPresent(value -> etags.put(path, value));
+            }
+        }
+
+        private HttpResponse<byte[]> call(String endpoint, HttpRequest.Builder request) {
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = null;
+            try {
+                response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            } catch (IOException e) {
+                // counted as an error below
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (start >= warmupEnd && start < end) {
+                stats.record(endpoint, System.nanoTime() - start, response == null || response.statusCode() >= 400);
+            }
+            return response;
+        }
+    }
+
+    private enum Scenario {
+        DASHBOARD, CREATE, CLOSE, INVEST, WALLETS;
+
+        void run(Worker worker) throws IOException {
+            switch (this) {
+                case DASHBOARD -> worker.dashboard();
+                case CREATE -> worker.createTrade();
+                case CLOSE -> worker.closeTrade();
+                case INVEST -> worker.addInvestment();
+                case WALLETS -> worker.walletSummaries();
+            }
+        }
+
+        // e.g. "dashboard:40,create:10"
+        static Map<Scenario, Integer> parseMix(String mix) {
+            Map<Scenario, Integer> weights = new LinkedHashMap<>();
+            for (String part : mix.split(",")) {
+                String[] weight = part.trim().split(":");
+                int value = Integer.parseInt(weight[1].trim());
+                if (value > 0) {
+                    weights.put(valueOf(weight[0].trim().toUpperCase()), value);
+                }
+            }
+            if (weights.isEmpty()) {
+                throw new IllegalArgumentException("No scenario has a positive weight in " + mix);
+            }
+            return weights;
+        }
+    }
+
+    private record OpenTrade(long id, BigDecimal entryPrice) {
+    }
+
+    // Trades the workers may close or invest in; closing removes a trade so it is closed once
+    private static final class OpenTrades {
+
+        private final List<OpenTrade> trades = new ArrayList<>();
+
+        synchronized void add(OpenTrade trade) {
+            trades.add(trade);
+        }
+
+        synchronized int size() {
+            return trades.size();
+        }
+
+        synchronized OpenTrade peek(Random random) {
+            return trades.isEmpty() ? null : trades.get(random.nextInt(trades.size()));
+        }
+
+        synchronized OpenTrade take(Random random) {
+            if (trades.isEmpty()) {
+                return null;
+            }
+            int index = random.nextInt(trades.size());
+            OpenTrade trade = trades.get(index);
+            trades.set(index, trades.get(trades.size() - 1));
+            trades.remove(trades.size() - 1);
+            return trade;
+        }
+    }
+
+    record EndpointResult(String endpoint, long requests, long errors, double throughput, double meanMs,
+                          double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    record RunResult(String label, String url, String startedAt, int concurrency, int durationSeconds,
+                     int warmupSeconds, String mix, int seedTrades, List<EndpointResult> endpoints) {
+    }
+
+    // --name=value command line options
+    private record Options(String url, int concurrency, int duration, int warmup, int seedTrades, String mix,
+                           int thinkMs, long seed, int startupTimeout, String label, String out, String compare) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new HashMap<>();
+            for (String arg : args) {
+                if (!arg.startsWith("--") || !arg.contains("=")) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + arg);
+                }
+                values.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+            return new Options(
+                    values.getOrDefault("url", "http://localhost:8093"),
+                    Integer.parseInt(values.getOrDefault("concurrency", "16")),
+                    Integer.parseInt(values.getOrDefault("duration", "60")),
+                    Integer.parseInt(values.getOrDefault("warmup", "15")),
+                    Integer.parseInt(values.getOrDefault("seed-trades", "2000")),
+                    values.getOrDefault("mix", DEFAULT_MIX),
+                    Integer.parseInt(values.getOrDefault("think-ms", "0")),
+                    Long.parseLong(values.getOrDefault("seed", "1")),
+                    Integer.parseInt(values.getOrDefault("startup-timeout", "120")),
+                    values.getOrDefault("label", "local"),
+                    values.get("out"),
+                    values.get("compare"));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.portfolio.benchmark;
+
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.util.PnlCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Single-trade P&L math
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PnlBenchmark {
+
+    private Trade trade;
+
+    @Setup
+    public void setUp() {
+        trade = SyntheticTrades.trades(1, TradeStatus.CLOSED, 7).get(0);
+    }
+
+    @Benchmark
+    public BigDecimal calculateProfitLoss() {
+        trade.calculateProfitLoss();
+        return trade.getProfitLoss();
+    }
+
+    @Benchmark
+    public BigDecimal realizedPnl() {
+        return PnlCalculator.realizedPnl(trade.getPositionSize(), trade.getEntryPrice(), trade.getExitPrice(),
+                trade.getLeverage(), trade.getTradeType(), trade.getFees());
+    }
+
+    @Benchmark
+    public BigDecimal openValuation() {
+        return PnlCalculator.Valuation.of(trade.getPositionSize(), trade.getEntryPrice(), trade.getCurrentPrice(),
+                trade.getLeverage(), trade.getTradeType()).profitLoss();
+    }
+}
@@ -0,0 +1,58 @@
+package com.portfolio.benchmark;
+
+import com.portfolio.dto.TradeSummaryDTO;
+import com.portfolio.event.TradeChangedEvent;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.service.PortfolioSummaryAggregator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Marking every open position to a new price (one tick per coin) and reading the summary
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class PortfolioRevaluationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int openTrades;
+
+    private PortfolioSummaryAggregator aggregator;
+    private BigDecimal[][] tickPrices;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // No transaction is active here, so changes are applied immediately
+        aggregator = new PortfolioSummaryAggregator(null, null, null);
+        for (Trade trade : SyntheticTrades.trades(openTrades, TradeStatus.OPEN, 11)) {
+            aggregator.onTradeChanged(TradeChangedEvent.saved(null, trade));
+        }
+        Random random = new Random(13);
+        tickPrices = new BigDecimal[16][SyntheticTrades.COINS.length];
+        for (BigDecimal[] prices : tickPrices) {
+            for (int coin = 0; coin < prices.length; coin++) {
+                prices[coin] = SyntheticTrades.price(SyntheticTrades.BASE_PRICES[coin], random);
+            }
+        }
+    }
+
+    @Benchmark
+    public void revalueAllCoins() {
+        BigDecimal[] prices = tickPrices[tick++ & 15];
+        for (int coin = 0; coin < prices.length; coin++) {
+            aggregator.onPriceTick(SyntheticTrades.COINS[coin], prices[coin]);
+        }
+    }
+
+    @Benchmark
+    public TradeSummaryDTO readSummary() {
+        return aggregator.getSummary();
+    }
+}
@@ -0,0 +1,53 @@
+package com.portfolio.benchmark;
+
+import com.portfolio.event.TradeChangedEvent;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.service.PortfolioSummaryAggregator;
+import com.portfolio.util.PnlCalculator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Aggregating realized P&L over a history of closed trades
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class RealizedPnlAggregationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int closedTrades;
+
+    private List<Trade> trades;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        trades = SyntheticTrades.trades(closedTrades, TradeStatus.CLOSED, 17);
+    }
+
+    // Wallet-style realized P&L recomputed for every trade
+    @Benchmark
+    public BigDecimal sumRealizedPnl() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Trade trade : trades) {
+            total = total.add(PnlCalculator.realizedPnl(trade.getPositionSize(), trade.getEntryPrice(),
+                    trade.getExitPrice(), trade.getLeverage(), trade.getTradeType(), trade.getFees()));
+        }
+        return total;
+    }
+
+    // Feeding every closed trade through the summary aggregator
+    @Benchmark
+    public PortfolioSummaryAggregator aggregateSummary() {
+        PortfolioSummaryAggregator aggregator = new PortfolioSummaryAggregator(null, null, null);
+        for (Trade trade : trades) {
+            aggregator.onTradeChanged(TradeChangedEvent.saved(null, trade));
+        }
+        return aggregator;
+    }
+}
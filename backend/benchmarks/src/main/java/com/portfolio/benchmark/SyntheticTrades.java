@@ -0,0 +1,80 @@
+package com.portfolio.benchmark;
+
+import com.portfolio.model.Investment;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Deterministic synthetic data shaped like real trades (column scales, coins, leverage ranges)
+final class SyntheticTrades {
+
+    static final String[] COINS = {"BTC", "ETH", "SOL", "XRP", "DOGE", "ADA", "AVAX", "LINK", "DOT", "MATIC"};
+    static final String[] EXCHANGES = {"Binance", "Bybit", "OKX", "Bitget"};
+    static final double[] BASE_PRICES = {65000, 3200, 150, 0.55, 0.12, 0.45, 35, 14, 7, 0.7};
+
+    private SyntheticTrades() {
+    }
+
+    static List<Trade> trades(int count, TradeStatus status, long seed) {
+        Random random = new Random(seed);
+        LocalDateTime start = LocalDateTime.of(2022, 1, 1, 0, 0);
+        List<Trade> trades = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int coin = random.nextInt(COINS.length);
+            Trade trade = new Trade();
+            trade.setId((long) i + 1);
+            trade.setCoin(COINS[coin]);
+            trade.setTradeType(random.nextBoolean() ? TradeType.LONG : TradeType.SHORT);
+            trade.setEntryPrice(price(BASE_PRICES[coin], random));
+            trade.setCurrentPrice(price(BASE_PRICES[coin], random));
+            trade.setQuantity(amount(1000 / BASE_PRICES[coin], random).setScale(8, RoundingMode.HALF_UP));
+            trade.setLeverage(1 + random.nextInt(50));
+            trade.setPositionSize(amount(1000, random));
+            trade.setFees(amount(2, random));
+            trade.setExchange(EXCHANGES[random.nextInt(EXCHANGES.length)]);
+            trade.setStatus(status);
+            trade.setNotes("synthetic trade " + i);
+            trade.setTradeDate(start.plusMinutes(i * 7L));
+            if (status == TradeStatus.CLOSED) {
+                trade.setExitPrice(price(BASE_PRICES[coin], random));
+                trade.setCloseDate(trade.getTradeDate().plusHours(1 + random.nextInt(48)));
+                trade.calculateProfitLoss();
+                trade.setPositionSize(trade.getPositionSize().setScale(2, RoundingMode.HALF_UP));
+                trade.setProfitLoss(trade.getProfitLoss().setScale(2, RoundingMode.HALF_UP));
+            }
+            trades.add(trade);
+        }
+        return trades;
+    }
+
+    static List<Investment> investments(Trade trade, int count, long seed) {
+        Random random = new Random(seed);
+        List<Investment> investments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Investment investment = new Investment();
+            investment.setId((long) i + 1);
+            investment.setTrade(trade);
+            investment.setAmount(amount(200, random));
+            investment.setPriceAtInvestment(price(trade.getEntryPrice().doubleValue(), random));
+            investment.setInvestmentDate(trade.getTradeDate().plusMinutes(i));
+            investments.add(investment);
+        }
+        return investments;
+    }
+
+    // Price within +/-10% of base, at the price column scale
+    static BigDecimal price(double base, Random random) {
+        return BigDecimal.valueOf(base * (0.9 + random.nextDouble() * 0.2)).setScale(8, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal amount(double max, Random random) {
+        return BigDecimal.valueOf(1 + random.nextDouble() * max).setScale(2, RoundingMode.HALF_UP);
+    }
+}
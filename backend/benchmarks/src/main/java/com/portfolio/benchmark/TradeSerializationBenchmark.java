@@ -0,0 +1,45 @@
+package com.portfolio.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson serialization of List<Trade>, configured like Spring Boot's default ObjectMapper
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class TradeSerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int trades;
+
+    private ObjectMapper mapper;
+    private List<Trade> list;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        list = new ArrayList<>(SyntheticTrades.trades(trades / 2, TradeStatus.CLOSED, 19));
+        list.addAll(SyntheticTrades.trades(trades - trades / 2, TradeStatus.OPEN, 23));
+    }
+
+    @Benchmark
+    public void serializeTrades() throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), list);
+    }
+}
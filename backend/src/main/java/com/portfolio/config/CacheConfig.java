@@ -0,0 +1,55 @@
+package com.portfolio.config;
+
+import com.github.benmanes.caffeine.jcache.CacheManagerImpl;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.Properties;
+
+/**
+ * Caches are Caffeine caches configured by spring.cache.* in application.properties and
+ * evicted by {@link com.portfolio.service.CacheEvictionListener}.
+ * <p>
+ * The cache advice runs before the transaction advice so a cache hit does not open a
+ * transaction or borrow a database connection.
+ * <p>
+ * Hibernate's second-level and query cache regions live in a Caffeine JCache manager built
+ * here from hibernate-cache.conf. Caffeine reads the classpath: URI itself, which works on any
+ * classpath (tests, the benchmarks jar), where Hibernate resolving it only works inside the
+ * Spring Boot jar. The manager belongs to this context alone, so contexts sharing a JVM do not
+ * share cached rows.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    public static final String TRADE_COINS = "tradeCoins";
+    public static final String TRADE_EXCHANGES = "tradeExchanges";
+    public static final String WALLET_SUMMARIES = "walletSummaries";
+    public static final String WALLET_SUMMARY = "walletSummary";
+    public static final String WALLET_TOTAL_BALANCE = "walletTotalBalance";
+
+    private static final URI HIBERNATE_CACHE_CONFIG = URI.create("classpath:hibernate-cache.conf");
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.hibernate-cache.enabled", havingValue = "true")
+    public CacheManager hibernateCacheManager() {
+        return new CacheManagerImpl(Caching.getCachingProvider(CaffeineCachingProvider.class.getName()), false,
+                HIBERNATE_CACHE_CONFIG, CacheConfig.class.getClassLoader(), new Properties());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.hibernate-cache.enabled", havingValue = "true")
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -0,0 +1,31 @@
+package com.portfolio.config;
+
+import com.portfolio.service.DataVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.LocalDate;
+
+// Answers GETs whose If-None-Match carries the current data version with 304 before the handler runs
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private final DataVersion dataVersion;
+    // Whether the responses also depend on the current date (tagged with DataVersion.etag(LocalDate))
+    private final boolean dated;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        // Cacheable, but revalidated on every use
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        return !new ServletWebRequest(request, response).checkNotModified(
+                dated ? dataVersion.etag(LocalDate.now()) : dataVersion.etag());
+    }
+}
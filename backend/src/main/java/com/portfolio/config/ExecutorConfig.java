@@ -0,0 +1,44 @@
+package com.portfolio.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor for read queries that run side by side (see {@link com.portfolio.service.ParallelQueryRunner}).
+ * <p>
+ * At most app.summary.query-concurrency queries run at once, each holding its own connection,
+ * so keep it well below the connection pool size. With spring.threads.virtual.enabled on a
+ * Java 21+ runtime the queries run on virtual threads, otherwise on a fixed platform pool.
+ */
+@Slf4j
+@Configuration
+public class ExecutorConfig {
+
+    public static final String QUERY_EXECUTOR = "queryExecutor";
+
+    @Bean(QUERY_EXECUTOR)
+    public AsyncTaskExecutor queryExecutor(@Value("${app.summary.query-concurrency:4}") int concurrency,
+                                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("query-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(concurrency);
+            return executor;
+        }
+        if (virtualThreads) {
+            log.warn("Virtual threads need Java 21+, running queries on platform threads");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("query-");
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,23 @@
+package com.portfolio.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Service methods annotated with {@code @Observed(name = SERVICE_OBSERVATION)} are recorded as
+ * the portfolio.service timer, tagged with class, method and error (the exception's simple name,
+ * or "none"); the error tag doubles as the failure counter. Controllers are timed by Spring MVC
+ * (http.server.requests) and repositories by Spring Data (spring.data.repository.invocations).
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    public static final String SERVICE_OBSERVATION = "portfolio.service";
+
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+}
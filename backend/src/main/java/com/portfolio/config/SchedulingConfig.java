@@ -0,0 +1,39 @@
+package com.portfolio.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Schedulers for the @Scheduled jobs.
+ * <p>
+ * The default scheduler (spring.task.scheduling.*) runs the short stream jobs: summary frames
+ * and the stalled-write check, which must run every second to drop blocked subscribers. Jobs
+ * that can block name {@link #BACKGROUND_SCHEDULER} instead: the price refresh (a fetch of up
+ * to app.prices.fetch-timeout-ms, then any trigger closes its ticks set off), the daily P&L
+ * rebuild and the ledger snapshots. It has a thread per job, so they hold up neither the
+ * stream jobs nor each other.
+ */
+@Configuration
+public class SchedulingConfig {
+
+    public static final String BACKGROUND_SCHEDULER = "backgroundScheduler";
+
+    // Declared because defining the background scheduler turns off Boot's default one
+    @Bean
+    @Primary
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(BACKGROUND_SCHEDULER)
+    public ThreadPoolTaskScheduler backgroundScheduler(@Value("${app.scheduling.background-pool-size:3}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("background-");
+        scheduler.setPoolSize(poolSize);
+        return scheduler;
+    }
+}
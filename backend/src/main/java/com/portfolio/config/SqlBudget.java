@@ -0,0 +1,23 @@
+package com.portfolio.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Upper bound on the SQL statements (and optionally entities loaded) an endpoint may need per
+ * request, checked by {@link SqlBudgetInterceptor}. Bounds are constants on purpose: an endpoint
+ * that starts issuing a query per row shows up as over budget. The statement bound is the count
+ * measured with cold caches plus one (0 for endpoints served from memory), kept in step by
+ * SqlBudgetTest.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+
+    int statements();
+
+    // -1 when the endpoint returns every matching row
+    int entities() default -1;
+}
@@ -0,0 +1,59 @@
+package com.portfolio.config;
+
+import com.portfolio.util.SqlStatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts the SQL statements and entity loads of each request, records them as the
+ * portfolio.sql.statements and portfolio.sql.entities summaries per endpoint, and counts
+ * (portfolio.sql.budget.exceeded) and logs requests over their {@link SqlBudget}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementCounter.start();
+        return true;
+    }
+
+    // Streaming responses finish on another thread; only their synchronous part is counted
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatementCounter.stop();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatementCounter.Counts counts = SqlStatementCounter.current();
+        SqlStatementCounter.stop();
+        if (counts == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+        meterRegistry.summary("portfolio.sql.statements", "method", method, "uri", uri).record(counts.statements());
+        meterRegistry.summary("portfolio.sql.entities", "method", method, "uri", uri).record(counts.entities());
+
+        SqlBudget budget = handler instanceof HandlerMethod handlerMethod
+                ? handlerMethod.getMethodAnnotation(SqlBudget.class) : null;
+        if (budget != null && (counts.statements() > budget.statements()
+                || (budget.entities() >= 0 && counts.entities() > budget.entities()))) {
+            meterRegistry.counter("portfolio.sql.budget.exceeded", "method", method, "uri", uri).increment();
+            log.warn("{} {} used {} statements / {} entities, budget is {} / {}", method, uri,
+                    counts.statements(), counts.entities(), budget.statements(),
+                    budget.entities() >= 0 ? budget.entities() : "unbounded");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.portfolio.config;
+
+import com.portfolio.util.SqlStatementCounter;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+// Hooks Hibernate's statement preparation and entity loading into SqlStatementCounter
+@Configuration
+public class SqlCountingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlCountingCustomizer() {
+        StatementInspector statementCounter = sql -> {
+            SqlStatementCounter.statementPrepared();
+            return sql;
+        };
+        IntegratorProvider entityLoadCounter = () -> List.of(new EntityLoadCounting());
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementCounter);
+            properties.put(JpaSettings.INTEGRATOR_PROVIDER, entityLoadCounter);
+        };
+    }
+
+    private static class EntityLoadCounting implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            PostLoadEventListener listener = event -> SqlStatementCounter.entityLoaded();
+            sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD, listener);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.portfolio.config;
+
+import com.portfolio.service.DataVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // Reads whose response depends on the current date as well as on the data
+    private static final String DATED_READS = "/api/trades/summary";
+
+    private final DataVersion dataVersion;
+    private final MeterRegistry meterRegistry;
+    private final boolean sqlBudgets;
+
+    public WebConfig(DataVersion dataVersion,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.sql-budget.enabled:true}") boolean sqlBudgets) {
+        this.dataVersion = dataVersion;
+        this.meterRegistry = meterRegistry;
+        this.sqlBudgets = sqlBudgets;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Registered first so requests answered with 304 are counted too
+        if (sqlBudgets) {
+            registry.addInterceptor(new SqlBudgetInterceptor(meterRegistry)).addPathPatterns("/api/**");
+        }
+        // Trade, investment and wallet reads only change with the data version (see DataVersion)
+        registry.addInterceptor(new ConditionalGetInterceptor(dataVersion, false))
+                .addPathPatterns("/api/trades", "/api/trades/**", "/api/wallets", "/api/wallets/**")
+                .excludePathPatterns(DATED_READS);
+        // The summary's today/week/month P&L also changes when the date does
+        registry.addInterceptor(new ConditionalGetInterceptor(dataVersion, true))
+                .addPathPatterns(DATED_READS);
+    }
+}
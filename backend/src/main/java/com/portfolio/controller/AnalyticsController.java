@@ -0,0 +1,68 @@
+package com.portfolio.controller;
+
+import com.portfolio.dto.DailyPnlDTO;
+import com.portfolio.dto.EquityCurveDTO;
+import com.portfolio.service.DailyPnlService;
+import com.portfolio.service.EquityCurveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:5173")
+public class AnalyticsController {
+
+    private static final int MAX_CURVE_POINTS = 5000;
+    // Open-ended ranges, within what a MySQL datetime can hold
+    private static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 30);
+
+    private final DailyPnlService dailyPnlService;
+    private final EquityCurveService equityCurveService;
+
+    // Realized P&L per day (calendar heatmap), default the last 365 days, e.g. ?from=2026-01-01&coin=BTC
+    @GetMapping("/daily-pnl")
+    public ResponseEntity<List<DailyPnlDTO>> getDailyPnl(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String coin,
+            @RequestParam(required = false) String exchange) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(364);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(dailyPnlService.getDailyProfitLoss(start, end, coin, exchange));
+    }
+
+    // Equity curve, drawdown and trade statistics of trades closed between from and to (inclusive days),
+    // e.g. ?points=500&initialEquity=10000
+    @GetMapping("/equity-curve")
+    public ResponseEntity<EquityCurveDTO> getEquityCurve(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "200") int points,
+            @RequestParam(defaultValue = "0") BigDecimal initialEquity) {
+        LocalDate start = from != null ? from : EARLIEST;
+        LocalDate end = to != null ? to : LATEST;
+        if (points < 2 || points > MAX_CURVE_POINTS || start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(equityCurveService.getEquityCurve(
+                start.atStartOfDay(), end.plusDays(1).atStartOfDay(), points, initialEquity));
+    }
+
+    // Recompute the daily P&L rollup from the trades table
+    @PostMapping("/daily-pnl/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDailyPnl() {
+        return ResponseEntity.ok(Map.of("rows", dailyPnlService.rebuild()));
+    }
+}
@@ -1,14 +1,22 @@
 package com.portfolio.controller;
 
+import com.portfolio.config.SqlBudget;
+import com.portfolio.dto.WalletBalanceDTO;
+import com.portfolio.dto.WalletLedgerCheckDTO;
 import com.portfolio.model.ExchangeWallet;
+import com.portfolio.model.WalletLedgerEntry;
 import com.portfolio.service.ExchangeWalletService;
+import com.portfolio.service.WalletLedgerService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -18,20 +26,26 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:5173")
 public class ExchangeWalletController {
 
+    private static final int MAX_LEDGER_ENTRIES = 1000;
+
     private final ExchangeWalletService walletService;
+    private final WalletLedgerService ledgerService;
 
     @PostMapping
+    @SqlBudget(statements = 3, entities = 0)
     public ResponseEntity<ExchangeWallet> createWallet(@Valid @RequestBody ExchangeWallet wallet) {
         ExchangeWallet created = walletService.createWallet(wallet);
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
 
     @GetMapping
+    @SqlBudget(statements = 2)
     public ResponseEntity<List<ExchangeWallet>> getAllWallets() {
         return ResponseEntity.ok(walletService.getAllWallets());
     }
 
     @GetMapping("/{id}")
+    @SqlBudget(statements = 2, entities = 1)
     public ResponseEntity<ExchangeWallet> getWalletById(@PathVariable Long id) {
         return walletService.getWalletById(id)
                 .map(ResponseEntity::ok)
@@ -39,6 +53,7 @@ public class ExchangeWalletController {
     }
 
     @GetMapping("/exchange/{exchangeName}")
+    @SqlBudget(statements = 2, entities = 1)
     public ResponseEntity<ExchangeWallet> getWalletByExchange(@PathVariable String exchangeName) {
         return walletService.getWalletByExchange(exchangeName)
                 .map(ResponseEntity::ok)
@@ -46,16 +61,22 @@ public class ExchangeWalletController {
     }
 
     @PutMapping("/{id}")
+    @SqlBudget(statements = 4, entities = 1)
     public ResponseEntity<ExchangeWallet> updateWallet(@PathVariable Long id, @Valid @RequestBody ExchangeWallet wallet) {
         try {
             ExchangeWallet updated = walletService.updateWallet(id, wallet);
             return ResponseEntity.ok(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @DeleteMapping("/{id}")
+    @SqlBudget(statements = 3, entities = 1)
     public ResponseEntity<Void> deleteWallet(@PathVariable Long id) {
         try {
             walletService.deleteWallet(id);
@@ -67,6 +88,7 @@ public class ExchangeWalletController {
 
     // Get wallet summary with used/available balance
     @GetMapping("/{id}/summary")
+    @SqlBudget(statements = 2, entities = 1)
     public ResponseEntity<Map<String, Object>> getWalletSummary(@PathVariable Long id) {
         try {
             Map<String, Object> summary = walletService.getWalletSummary(id);
@@ -78,13 +100,79 @@ public class ExchangeWalletController {
 
     // Get all wallets with summaries
     @GetMapping("/summaries")
+    @SqlBudget(statements = 2)
     public ResponseEntity<List<Map<String, Object>>> getAllWalletSummaries() {
         return ResponseEntity.ok(walletService.getAllWalletSummaries());
     }
 
     // Get total balance across all exchanges
     @GetMapping("/total-balance")
+    @SqlBudget(statements = 2, entities = 0)
     public ResponseEntity<BigDecimal> getTotalBalance() {
         return ResponseEntity.ok(walletService.getTotalBalance());
     }
+
+    // Ledger entries of a wallet, newest first, e.g. ?from=2026-01-01T00:00:00&limit=100
+    @GetMapping("/{id}/ledger")
+    @SqlBudget(statements = 3, entities = MAX_LEDGER_ENTRIES)
+    public ResponseEntity<List<WalletLedgerEntry>> getLedger(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "200") int limit) {
+        if (limit < 1 || limit > MAX_LEDGER_ENTRIES) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(ledgerService.getEntries(id, from, to, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Record a deposit, withdrawal, fee or manual adjustment (signed amount) and return the updated wallet
+    @PostMapping("/{id}/ledger")
+    @SqlBudget(statements = 5, entities = 1)
+    public ResponseEntity<ExchangeWallet> addLedgerEntry(@PathVariable Long id, @Valid @RequestBody WalletLedgerEntry entry) {
+        try {
+            ledgerService.addEntry(id, entry);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+        return walletService.getWalletById(id)
+                .map(wallet -> new ResponseEntity<>(wallet, HttpStatus.CREATED))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Wallet balance at a point in time, e.g. ?at=2026-03-31T23:59:59 (default now)
+    @GetMapping("/{id}/balance")
+    @SqlBudget(statements = 4, entities = 1)
+    public ResponseEntity<WalletBalanceDTO> getBalanceAt(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        try {
+            return ResponseEntity.ok(ledgerService.getBalanceAt(id, at != null ? at : LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Check the stored balance against the ledger
+    @GetMapping("/{id}/ledger/verify")
+    @SqlBudget(statements = 4, entities = 2)
+    public ResponseEntity<WalletLedgerCheckDTO> verifyLedger(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(ledgerService.verify(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Take balance snapshots now instead of waiting for the schedule (statements grow with the wallet count)
+    @PostMapping("/snapshots")
+    public ResponseEntity<Map<String, Object>> takeSnapshots() {
+        return ResponseEntity.ok(Map.of("snapshots", ledgerService.takeSnapshots()));
+    }
 }
@@ -0,0 +1,55 @@
+package com.portfolio.controller;
+
+import com.portfolio.dto.DataFormat;
+import com.portfolio.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:5173")
+public class ExportController {
+
+    private final ExportService exportService;
+
+    // Stream all trades as CSV (default) or NDJSON, e.g. /trades?format=ndjson
+    @GetMapping("/trades")
+    public void exportTrades(@RequestParam(defaultValue = "csv") String format,
+                             HttpServletResponse response) throws IOException {
+        export(format, "trades", response, exportService::exportTrades);
+    }
+
+    // Stream all investments as CSV (default) or NDJSON
+    @GetMapping("/investments")
+    public void exportInvestments(@RequestParam(defaultValue = "csv") String format,
+                                  HttpServletResponse response) throws IOException {
+        export(format, "investments", response, exportService::exportInvestments);
+    }
+
+    // Rows are written straight to the response as they are read
+    private void export(String formatName, String fileName, HttpServletResponse response,
+                        Exporter exporter) throws IOException {
+        DataFormat format;
+        try {
+            format = DataFormat.fromName(formatName);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+        response.setContentType(format.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + fileName + "." + format.getExtension() + "\"");
+        exporter.export(format, response.getOutputStream());
+    }
+
+    @FunctionalInterface
+    private interface Exporter {
+        void export(DataFormat format, OutputStream out) throws IOException;
+    }
+}
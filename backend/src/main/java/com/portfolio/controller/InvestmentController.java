@@ -1,5 +1,6 @@
 package com.portfolio.controller;
 
+import com.portfolio.config.SqlBudget;
 import com.portfolio.dto.InvestmentDTO;
 import com.portfolio.service.InvestmentService;
 import jakarta.validation.Valid;
@@ -21,6 +22,7 @@ public class InvestmentController {
 
     // Add investment to a trade
     @PostMapping
+    @SqlBudget(statements = 6, entities = 2)
     public ResponseEntity<InvestmentDTO> addInvestment(
             @PathVariable Long tradeId,
             @Valid @RequestBody InvestmentDTO dto) {
@@ -30,6 +32,7 @@ public class InvestmentController {
 
     // Get all investments for a trade
     @GetMapping
+    @SqlBudget(statements = 2)
     public ResponseEntity<List<InvestmentDTO>> getInvestments(@PathVariable Long tradeId) {
         List<InvestmentDTO> investments = investmentService.getInvestmentsByTradeId(tradeId);
         return ResponseEntity.ok(investments);
@@ -37,6 +40,7 @@ public class InvestmentController {
 
     // Get total invested for a trade
     @GetMapping("/total")
+    @SqlBudget(statements = 2, entities = 0)
     public ResponseEntity<BigDecimal> getTotalInvested(@PathVariable Long tradeId) {
         BigDecimal total = investmentService.getTotalInvested(tradeId);
         return ResponseEntity.ok(total);
@@ -44,6 +48,7 @@ public class InvestmentController {
 
     // Update investment
     @PutMapping("/{investmentId}")
+    @SqlBudget(statements = 7, entities = 2)
     public ResponseEntity<InvestmentDTO> updateInvestment(
             @PathVariable Long tradeId,
             @PathVariable Long investmentId,
@@ -58,6 +63,7 @@ public class InvestmentController {
 
     // Delete investment
     @DeleteMapping("/{investmentId}")
+    @SqlBudget(statements = 7, entities = 2)
     public ResponseEntity<Void> deleteInvestment(
             @PathVariable Long tradeId,
             @PathVariable Long investmentId) {
@@ -0,0 +1,34 @@
+package com.portfolio.controller;
+
+import com.portfolio.dto.PriceQuoteDTO;
+import com.portfolio.dto.PriceTickDTO;
+import com.portfolio.service.PriceService;
+import com.portfolio.service.PriceTickService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/prices")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:5173")
+public class PriceController {
+
+    private final PriceTickService priceTickService;
+    private final PriceService priceService;
+
+    // Get cached live prices keyed by symbol, e.g. ?symbols=BTC,ETH
+    @GetMapping
+    public ResponseEntity<Map<String, PriceQuoteDTO>> getPrices(@RequestParam List<String> symbols) {
+        return ResponseEntity.ok(priceService.getPrices(symbols));
+    }
+
+    // Apply a batch of {coin, price} ticks to all open trades
+    @PostMapping("/ticks")
+    public ResponseEntity<Map<String, Object>> applyTicks(@RequestBody List<PriceTickDTO> ticks) {
+        return ResponseEntity.ok(priceTickService.applyTicks(ticks));
+    }
+}
@@ -0,0 +1,22 @@
+package com.portfolio.controller;
+
+import com.portfolio.service.PortfolioStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/stream")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:5173")
+public class StreamController {
+
+    private final PortfolioStreamService streamService;
+
+    // Live trade deltas and periodic summary frames over Server-Sent Events
+    @GetMapping(value = "/portfolio", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPortfolio() {
+        return streamService.subscribe();
+    }
+}
@@ -1,11 +1,19 @@
 package com.portfolio.controller;
 
+import com.portfolio.config.SqlBudget;
+import com.portfolio.dto.DataFormat;
+import com.portfolio.dto.TradeImportResultDTO;
+import com.portfolio.dto.TradePageDTO;
+import com.portfolio.dto.TradeQueryDTO;
 import com.portfolio.dto.TradeSummaryDTO;
+import com.portfolio.dto.TradeView;
 import com.portfolio.model.CloseReason;
 import com.portfolio.model.Trade;
 import com.portfolio.model.TradeStatus;
 import com.portfolio.model.TradeType;
+import com.portfolio.service.TradeImportService;
 import com.portfolio.service.TradeService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -13,6 +21,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -25,31 +34,65 @@ import java.util.Map;
 public class TradeController {
 
     private final TradeService tradeService;
+    private final TradeImportService tradeImportService;
 
     // Create a new trade
     @PostMapping
+    @SqlBudget(statements = 2, entities = 0)
     public ResponseEntity<Trade> createTrade(@Valid @RequestBody Trade trade) {
         Trade createdTrade = tradeService.createTrade(trade);
         return new ResponseEntity<>(createdTrade, HttpStatus.CREATED);
     }
 
-    // Get all trades
+    // Get all trades; ?view=detail, list or card returns read models instead of full trades
     @GetMapping
-    public ResponseEntity<List<Trade>> getAllTrades() {
-        List<Trade> trades = tradeService.getAllTrades();
-        return ResponseEntity.ok(trades);
+    @SqlBudget(statements = 2)
+    public ResponseEntity<List<?>> getAllTrades(@RequestParam(defaultValue = "full") String view) {
+        try {
+            List<?> trades = tradeService.getAllTrades(TradeView.fromName(view).getType());
+            return ResponseEntity.ok(trades);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
-    // Get trade by ID
+    // Get one page of trades with combined filters, e.g.
+    // /page?coin=BTC&status=OPEN&sort=tradeDate&order=desc&limit=50&cursor=...&view=list
+    @GetMapping("/page")
+    @SqlBudget(statements = 2, entities = 501)
+    public ResponseEntity<TradePageDTO> getTradesPage(@ModelAttribute TradeQueryDTO query) {
+        try {
+            return ResponseEntity.ok(tradeService.getTradesPage(query));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Bulk import trades from a CSV file (header row of Trade field names) or NDJSON (one trade per line);
+    // no SqlBudget, statements grow with the number of batches
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<TradeImportResultDTO> importTrades(HttpServletRequest request) throws IOException {
+        DataFormat format = request.getContentType().startsWith(DataFormat.CSV.getMediaType())
+                ? DataFormat.CSV : DataFormat.NDJSON;
+        return ResponseEntity.ok(tradeImportService.importTrades(request.getInputStream(), format));
+    }
+
+    // Get trade by ID (?view=detail for the read model)
     @GetMapping("/{id}")
-    public ResponseEntity<Trade> getTradeById(@PathVariable Long id) {
-        return tradeService.getTradeById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    @SqlBudget(statements = 2, entities = 1)
+    public ResponseEntity<?> getTradeById(@PathVariable Long id, @RequestParam(defaultValue = "full") String view) {
+        try {
+            return tradeService.getTradeById(id, TradeView.fromName(view).getType())
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // Update trade
     @PutMapping("/{id}")
+    @SqlBudget(statements = 3, entities = 1)
     public ResponseEntity<Trade> updateTrade(@PathVariable Long id, @Valid @RequestBody Trade trade) {
         try {
             Trade updatedTrade = tradeService.updateTrade(id, trade);
@@ -61,6 +104,7 @@ public class TradeController {
 
     // Delete trade
     @DeleteMapping("/{id}")
+    @SqlBudget(statements = 6)
     public ResponseEntity<Void> deleteTrade(@PathVariable Long id) {
         try {
             tradeService.deleteTrade(id);
@@ -72,6 +116,7 @@ public class TradeController {
 
     // Close a trade
     @PatchMapping("/{id}/close")
+    @SqlBudget(statements = 6, entities = 2)
     public ResponseEntity<Trade> closeTrade(
             @PathVariable Long id,
             @RequestBody Map<String, Object> closeData) {
@@ -88,36 +133,61 @@ public class TradeController {
 
     // Get trades by coin
     @GetMapping("/coin/{coin}")
-    public ResponseEntity<List<Trade>> getTradesByCoin(@PathVariable String coin) {
-        List<Trade> trades = tradeService.getTradesByCoin(coin);
-        return ResponseEntity.ok(trades);
+    @SqlBudget(statements = 2)
+    public ResponseEntity<List<?>> getTradesByCoin(@PathVariable String coin,
+            @RequestParam(defaultValue = "full") String view) {
+        try {
+            List<?> trades = tradeService.getTradesByCoin(coin, TradeView.fromName(view).getType());
+            return ResponseEntity.ok(trades);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // Get trades by status
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Trade>> getTradesByStatus(@PathVariable TradeStatus status) {
-        List<Trade> trades = tradeService.getTradesByStatus(status);
-        return ResponseEntity.ok(trades);
+    @SqlBudget(statements = 2)
+    public ResponseEntity<List<?>> getTradesByStatus(@PathVariable TradeStatus status,
+            @RequestParam(defaultValue = "full") String view) {
+        try {
+            List<?> trades = tradeService.getTradesByStatus(status, TradeView.fromName(view).getType());
+            return ResponseEntity.ok(trades);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // Get trades by type
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<Trade>> getTradesByType(@PathVariable TradeType type) {
-        List<Trade> trades = tradeService.getTradesByType(type);
-        return ResponseEntity.ok(trades);
+    @SqlBudget(statements = 2)
+    public ResponseEntity<List<?>> getTradesByType(@PathVariable TradeType type,
+            @RequestParam(defaultValue = "full") String view) {
+        try {
+            List<?> trades = tradeService.getTradesByType(type, TradeView.fromName(view).getType());
+            return ResponseEntity.ok(trades);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // Get trades by date range
     @GetMapping("/date-range")
-    public ResponseEntity<List<Trade>> getTradesByDateRange(
+    @SqlBudget(statements = 2)
+    public ResponseEntity<List<?>> getTradesByDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<Trade> trades = tradeService.getTradesByDateRange(startDate, endDate);
-        return ResponseEntity.ok(trades);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "full") String view) {
+        try {
+            List<?> trades = tradeService.getTradesByDateRange(startDate, endDate, TradeView.fromName(view).getType());
+            return ResponseEntity.ok(trades);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // Get trade summary/statistics
     @GetMapping("/summary")
+    @SqlBudget(statements = 0, entities = 0)
     public ResponseEntity<TradeSummaryDTO> getTradeSummary() {
         TradeSummaryDTO summary = tradeService.getTradeSummary();
         return ResponseEntity.ok(summary);
@@ -125,6 +195,7 @@ public class TradeController {
 
     // Get unique coins
     @GetMapping("/coins")
+    @SqlBudget(statements = 2, entities = 0)
     public ResponseEntity<List<String>> getUniqueCoins() {
         List<String> coins = tradeService.getUniqueCoins();
         return ResponseEntity.ok(coins);
@@ -132,6 +203,7 @@ public class TradeController {
 
     // Get unique exchanges
     @GetMapping("/exchanges")
+    @SqlBudget(statements = 2, entities = 0)
     public ResponseEntity<List<String>> getUniqueExchanges() {
         List<String> exchanges = tradeService.getUniqueExchanges();
         return ResponseEntity.ok(exchanges);
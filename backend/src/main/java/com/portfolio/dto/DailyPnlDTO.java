@@ -0,0 +1,17 @@
+package com.portfolio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyPnlDTO {
+    private LocalDate date;
+    private BigDecimal profitLoss;
+    private long trades;           // trades closed that day
+}
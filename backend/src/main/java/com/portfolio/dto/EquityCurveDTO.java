@@ -0,0 +1,42 @@
+package com.portfolio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EquityCurveDTO {
+    private BigDecimal initialEquity;
+    private BigDecimal finalEquity;
+    private long trades;
+    private long winningTrades;
+    private long losingTrades;
+    private BigDecimal grossProfit;
+    private BigDecimal grossLoss;
+    private BigDecimal profitFactor;         // gross profit / gross loss, null without losses
+    private BigDecimal maxDrawdown;          // largest drop from a running equity peak
+    private BigDecimal maxDrawdownPercent;   // relative to that peak, null if the peak was not positive
+    private LocalDateTime maxDrawdownDate;
+    private long longestWinningStreak;
+    private long longestLosingStreak;
+    private long tradingDays;                // days with at least one closed trade
+    private BigDecimal sharpeRatio;          // mean / std dev of daily P&L, annualized over 365 days
+    private List<Point> points = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDateTime date;          // close date of the last trade in the point
+        private long trades;                 // trades closed up to and including this point
+        private BigDecimal equity;
+        private BigDecimal drawdown;
+    }
+}
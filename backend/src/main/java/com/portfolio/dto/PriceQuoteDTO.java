@@ -0,0 +1,15 @@
+package com.portfolio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriceQuoteDTO {
+    private BigDecimal price;        // USD
+    private BigDecimal change24h;    // percent, may be null
+}
@@ -0,0 +1,24 @@
+package com.portfolio.dto;
+
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Dashboard card: what the portfolio totals and live P&L need
+public record TradeCardView(
+        Long id,
+        String coin,
+        TradeType tradeType,
+        TradeStatus status,
+        String exchange,
+        BigDecimal entryPrice,
+        BigDecimal currentPrice,
+        BigDecimal exitPrice,
+        BigDecimal quantity,
+        Integer leverage,
+        BigDecimal positionSize,
+        BigDecimal profitLoss,
+        LocalDateTime tradeDate) implements TradeReadModel {
+}
@@ -0,0 +1,39 @@
+package com.portfolio.dto;
+
+import com.portfolio.model.CloseReason;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Trade detail page: every column of the trade, read without loading the entity
+public record TradeDetailView(
+        Long id,
+        String coin,
+        TradeType tradeType,
+        TradeStatus status,
+        String exchange,
+        BigDecimal entryPrice,
+        BigDecimal currentPrice,
+        BigDecimal exitPrice,
+        BigDecimal quantity,
+        Integer leverage,
+        BigDecimal positionSize,
+        BigDecimal profitLoss,
+        BigDecimal profitLossPercentage,
+        BigDecimal investedQuantity,
+        BigDecimal averageEntryPrice,
+        BigDecimal fees,
+        BigDecimal stopLoss,
+        BigDecimal takeProfit,
+        BigDecimal liquidationPrice,
+        Boolean tpHit,
+        Boolean liquidated,
+        CloseReason closeReason,
+        String notes,
+        LocalDateTime tradeDate,
+        LocalDateTime closeDate,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) implements TradeReadModel {
+}
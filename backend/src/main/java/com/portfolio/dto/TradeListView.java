@@ -0,0 +1,34 @@
+package com.portfolio.dto;
+
+import com.portfolio.model.CloseReason;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Trade table row: the card plus risk levels, fees and close details (no notes or lot totals)
+public record TradeListView(
+        Long id,
+        String coin,
+        TradeType tradeType,
+        TradeStatus status,
+        String exchange,
+        BigDecimal entryPrice,
+        BigDecimal currentPrice,
+        BigDecimal exitPrice,
+        BigDecimal quantity,
+        Integer leverage,
+        BigDecimal positionSize,
+        BigDecimal profitLoss,
+        BigDecimal profitLossPercentage,
+        BigDecimal fees,
+        BigDecimal stopLoss,
+        BigDecimal takeProfit,
+        BigDecimal liquidationPrice,
+        Boolean tpHit,
+        Boolean liquidated,
+        CloseReason closeReason,
+        LocalDateTime tradeDate,
+        LocalDateTime closeDate) implements TradeReadModel {
+}
@@ -0,0 +1,16 @@
+package com.portfolio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradePageDTO {
+    private List<?> items;       // Trade entities, or the read model of the requested view
+    private String nextCursor;   // null when there are no more pages
+    private boolean hasMore;
+}
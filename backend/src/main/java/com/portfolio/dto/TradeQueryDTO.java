@@ -0,0 +1,41 @@
+package com.portfolio.dto;
+
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+// Query parameters for the paginated trade listing
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeQueryDTO {
+    private String coin;
+    private TradeStatus status;
+    private TradeType type;
+    private String exchange;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    // tradeDate (default), coin, leverage or entryPrice
+    private String sort = "tradeDate";
+
+    // asc or desc (default)
+    private String order = "desc";
+
+    // Opaque cursor returned as nextCursor by the previous page
+    private String cursor;
+
+    private Integer limit = 50;
+
+    // full (default), detail, list or card
+    private String view = "full";
+}
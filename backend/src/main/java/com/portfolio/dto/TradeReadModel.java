@@ -0,0 +1,22 @@
+package com.portfolio.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only projection of a trade, fetched by a constructor-expression query instead of as a
+ * managed {@link com.portfolio.model.Trade}. Every view carries the id and the page sort keys so
+ * it can be paged by keyset.
+ */
+public interface TradeReadModel {
+
+    Long id();
+
+    String coin();
+
+    BigDecimal entryPrice();
+
+    Integer leverage();
+
+    LocalDateTime tradeDate();
+}
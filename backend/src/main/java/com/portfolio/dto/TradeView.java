@@ -0,0 +1,36 @@
+package com.portfolio.dto;
+
+import com.portfolio.model.Trade;
+
+/**
+ * Shapes the trade read endpoints can return (?view=): the full entity (default) or one of the
+ * record read models.
+ */
+public enum TradeView {
+
+    FULL(Trade.class),
+    DETAIL(TradeDetailView.class),
+    LIST(TradeListView.class),
+    CARD(TradeCardView.class);
+
+    private final Class<?> type;
+
+    TradeView(Class<?> type) {
+        this.type = type;
+    }
+
+    // Trade for FULL, otherwise the read model record
+    public Class<?> getType() {
+        return type;
+    }
+
+    // Parse a view name such as "full" or "list"
+    public static TradeView fromName(String name) {
+        for (TradeView view : values()) {
+            if (view.name().equalsIgnoreCase(name)) {
+                return view;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported view: " + name);
+    }
+}
@@ -0,0 +1,19 @@
+package com.portfolio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletBalanceDTO {
+    private Long walletId;
+    private LocalDateTime at;
+    private BigDecimal balance;
+    private LocalDateTime snapshotAsOf;    // snapshot the balance starts from (null: from the first entry)
+    private long entriesAfterSnapshot;     // ledger entries added on top of the snapshot
+}
@@ -0,0 +1,21 @@
+package com.portfolio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletLedgerCheckDTO {
+    private Long walletId;
+    private BigDecimal storedBalance;      // exchange_wallets.total_balance
+    private BigDecimal ledgerBalance;      // latest snapshot + later ledger entries
+    private BigDecimal difference;         // stored - ledger
+    private boolean consistent;
+    private LocalDateTime snapshotAsOf;
+    private long entriesAfterSnapshot;
+}
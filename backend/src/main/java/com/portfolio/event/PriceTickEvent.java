@@ -0,0 +1,9 @@
+package com.portfolio.event;
+
+import java.math.BigDecimal;
+
+/**
+ * Published when a price tick has been applied to all open trades of a coin.
+ */
+public record PriceTickEvent(String coin, BigDecimal price) {
+}
@@ -0,0 +1,37 @@
+package com.portfolio.event;
+
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published by the service layer whenever a trade is created, updated, closed or deleted,
+ * with the trade's state from before the change (null for a new trade). Listeners pair that
+ * state with the trade as it is at commit, so publish at most one per trade and transaction.
+ * Listeners should use @TransactionalEventListener so they only see committed state.
+ */
+public record TradeChangedEvent(State before, Trade trade, boolean deleted) {
+
+    public static TradeChangedEvent saved(State before, Trade trade) {
+        return new TradeChangedEvent(before, trade, false);
+    }
+
+    public static TradeChangedEvent deleted(State before, Trade trade) {
+        return new TradeChangedEvent(before, trade, true);
+    }
+
+    // The fields of a trade that feed the portfolio totals, copied before it is modified
+    public record State(Long id, String coin, String exchange, TradeType tradeType, BigDecimal entryPrice,
+                        Integer leverage, BigDecimal positionSize, BigDecimal currentPrice, TradeStatus status,
+                        BigDecimal profitLoss, LocalDateTime closeDate) {
+
+        public static State of(Trade trade) {
+            return new State(trade.getId(), trade.getCoin(), trade.getExchange(), trade.getTradeType(),
+                    trade.getEntryPrice(), trade.getLeverage(), trade.getPositionSize(), trade.getCurrentPrice(),
+                    trade.getStatus(), trade.getProfitLoss(), trade.getCloseDate());
+        }
+    }
+}
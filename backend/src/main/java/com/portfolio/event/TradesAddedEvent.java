@@ -0,0 +1,12 @@
+package com.portfolio.event;
+
+import com.portfolio.model.Trade;
+
+import java.util.List;
+
+/**
+ * Published inside each bulk import transaction for the trades it inserted, instead of one
+ * TradeChangedEvent per row. TradesImportedEvent follows once the whole import is done.
+ */
+public record TradesAddedEvent(List<Trade> trades) {
+}
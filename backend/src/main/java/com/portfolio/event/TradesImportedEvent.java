@@ -0,0 +1,7 @@
+package com.portfolio.event;
+
+/**
+ * Published after a bulk import has added trades, instead of one TradeChangedEvent per row.
+ */
+public record TradesImportedEvent(long imported) {
+}
@@ -0,0 +1,8 @@
+package com.portfolio.event;
+
+/**
+ * Published by the service layer whenever a wallet is created, updated or deleted,
+ * or its balance changes because a trade was closed.
+ */
+public record WalletChangedEvent(Long walletId) {
+}
@@ -0,0 +1,38 @@
+package com.portfolio.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Realized P&L of the trades closed on one day for one coin and exchange (maintained by DailyPnlService)
+@Entity
+@Table(name = "daily_pnl")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyPnl {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "pnl_date", nullable = false)
+    private LocalDate pnlDate;
+
+    @Column(name = "coin_key", nullable = false, length = 20)
+    private String coinKey;
+
+    // Empty for trades without an exchange
+    @Column(name = "exchange_key", nullable = false, length = 50)
+    private String exchangeKey;
+
+    @Column(name = "realized_pnl", nullable = false, precision = 18, scale = 2)
+    private BigDecimal realizedPnl;
+
+    @Column(name = "trade_count", nullable = false)
+    private Integer tradeCount;
+}
@@ -1,21 +1,33 @@
 package com.portfolio.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Read on every trade close and wallet summary, rarely written: kept in the second-level cache,
+// with exchange name lookups resolved through the natural-id cache
 @Entity
 @Table(name = "exchange_wallets")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ExchangeWallet.CACHE_REGION)
+@NaturalIdCache(region = ExchangeWallet.NATURAL_ID_CACHE_REGION)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class ExchangeWallet {
 
+    public static final String CACHE_REGION = "exchangeWallets";
+    public static final String NATURAL_ID_CACHE_REGION = "exchangeWalletIds";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -24,6 +36,12 @@ public class ExchangeWallet {
     @Column(name = "exchange_name", nullable = false, unique = true, length = 50)
     private String exchangeName;
 
+    // Upper-cased exchange name; mutable because wallets can be renamed
+    @JsonIgnore
+    @NaturalId(mutable = true)
+    @Column(name = "exchange_key", nullable = false, unique = true, length = 50)
+    private String exchangeKey;
+
     @NotNull(message = "Total balance is required")
     @DecimalMin(value = "0.0", message = "Balance cannot be negative")
     @Column(name = "total_balance", nullable = false, precision = 18, scale = 2)
@@ -32,6 +50,11 @@ public class ExchangeWallet {
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    // Must match the stored version on update (optimistic locking)
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
@@ -42,10 +65,17 @@ public class ExchangeWallet {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        exchangeKey = keyOf(exchangeName);
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        exchangeKey = keyOf(exchangeName);
+    }
+
+    // Natural id value for an exchange name
+    public static String keyOf(String exchangeName) {
+        return exchangeName != null ? exchangeName.toUpperCase() : null;
     }
 }
@@ -16,8 +16,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Investment {
 
+    // Table-allocated ids so inserts can be batched (see V3__batchable_id_generators.sql)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "investment_ids")
+    @TableGenerator(name = "investment_ids", table = "id_generators", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "investments", allocationSize = 100)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
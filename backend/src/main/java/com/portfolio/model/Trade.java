@@ -6,6 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.portfolio.util.PnlCalculator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -18,8 +19,11 @@ import java.util.List;
 @AllArgsConstructor
 public class Trade {
 
+    // Table-allocated ids so inserts can be batched (see V3__batchable_id_generators.sql)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "trade_ids")
+    @TableGenerator(name = "trade_ids", table = "id_generators", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "trades", allocationSize = 100)
     private Long id;
 
     // Cascade delete investments when trade is deleted
@@ -67,6 +71,13 @@ public class Trade {
     @Column(name = "profit_loss", precision = 18, scale = 2)
     private BigDecimal profitLoss;
 
+    // Coins bought by the investment lots and their weighted average price (null without lots)
+    @Column(name = "invested_quantity", precision = 18, scale = 8)
+    private BigDecimal investedQuantity;
+
+    @Column(name = "average_entry_price", precision = 18, scale = 8)
+    private BigDecimal averageEntryPrice;
+
     @Column(name = "profit_loss_pct", precision = 8, scale = 2)
     private BigDecimal profitLossPercentage;
 
@@ -77,6 +88,15 @@ public class Trade {
     @Column(length = 50)
     private String exchange;
 
+    // Upper-cased coin/exchange for index-friendly case-insensitive lookups
+    @JsonIgnore
+    @Column(name = "coin_key", nullable = false, length = 20)
+    private String coinKey;
+
+    @JsonIgnore
+    @Column(name = "exchange_key", length = 50)
+    private String exchangeKey;
+
     @NotNull(message = "Status is required")
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, length = 10)
@@ -103,7 +123,7 @@ public class Trade {
     @Column(name = "liquidated", nullable = false)
     private Boolean liquidated = false;
 
-    // How the trade was closed: TP_HIT, LIQUIDATED, MANUAL
+    // How the trade was closed: TP_HIT, SL_HIT, LIQUIDATED, MANUAL
     @Enumerated(EnumType.STRING)
     @Column(name = "close_reason", length = 20)
     private CloseReason closeReason;
@@ -125,43 +145,31 @@ public class Trade {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        updateLookupKeys();
         calculateProfitLoss();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        updateLookupKeys();
         calculateProfitLoss();
     }
 
+    private void updateLookupKeys() {
+        coinKey = coin != null ? coin.toUpperCase() : null;
+        exchangeKey = exchange != null ? exchange.toUpperCase() : null;
+    }
+
     // Calculate profit/loss based on entry/exit price, quantity, leverage, and trade type
     public void calculateProfitLoss() {
         if (exitPrice != null && entryPrice != null && quantity != null && leverage != null) {
-            BigDecimal priceDiff;
-            if (tradeType == TradeType.LONG) {
-                priceDiff = exitPrice.subtract(entryPrice);
-            } else {
-                priceDiff = entryPrice.subtract(exitPrice);
-            }
-            
-            // Calculate position size
-            this.positionSize = entryPrice.multiply(quantity);
-            
-            // Calculate P&L with leverage
-            BigDecimal rawPnL = priceDiff.multiply(quantity).multiply(BigDecimal.valueOf(leverage));
-            
-            // Subtract fees if present
-            if (fees != null) {
-                this.profitLoss = rawPnL.subtract(fees);
-            } else {
-                this.profitLoss = rawPnL;
-            }
-            
-            // Calculate percentage
-            if (positionSize.compareTo(BigDecimal.ZERO) > 0) {
-                this.profitLossPercentage = this.profitLoss
-                        .divide(positionSize, 2, java.math.RoundingMode.HALF_UP)
-                        .multiply(BigDecimal.valueOf(100));
+            PnlCalculator.CloseOut closeOut = PnlCalculator.closeOut(
+                    entryPrice, exitPrice, quantity, leverage, tradeType, fees);
+            this.positionSize = closeOut.positionSize();
+            this.profitLoss = closeOut.profitLoss();
+            if (closeOut.profitLossPercentage() != null) {
+                this.profitLossPercentage = closeOut.profitLossPercentage();
             }
         }
     }
@@ -0,0 +1,31 @@
+package com.portfolio.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Sum of a wallet's ledger entries created at or before asOf (taken by WalletLedgerService)
+@Entity
+@Table(name = "wallet_balance_snapshots")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletBalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false)
+    private Long walletId;
+
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    @Column(nullable = false, precision = 18, scale = 2)
+    private BigDecimal balance;
+}
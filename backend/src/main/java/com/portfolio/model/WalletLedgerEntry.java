@@ -0,0 +1,48 @@
+package com.portfolio.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One balance movement of a wallet; rows are only ever inserted (see WalletBalanceService)
+@Entity
+@Table(name = "wallet_ledger")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    private Long walletId;
+
+    @NotNull(message = "Entry type is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, updatable = false, length = 20)
+    private WalletLedgerType entryType;
+
+    // Signed change of the balance
+    @NotNull(message = "Amount is required")
+    @Column(nullable = false, updatable = false, precision = 18, scale = 2)
+    private BigDecimal amount;
+
+    // Closed trade behind REALIZED_PNL and FEE entries
+    @Column(name = "trade_id", updatable = false)
+    private Long tradeId;
+
+    @Size(max = 255)
+    @Column(updatable = false)
+    private String note;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
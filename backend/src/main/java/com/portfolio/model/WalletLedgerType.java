@@ -0,0 +1,9 @@
+package com.portfolio.model;
+
+public enum WalletLedgerType {
+    DEPOSIT,       // Funds added to the exchange
+    WITHDRAWAL,    // Funds taken out of the exchange
+    REALIZED_PNL,  // P&L of a closed trade, before fees
+    FEE,           // Trading fees of a closed trade
+    ADJUSTMENT     // Manual balance correction
+}
@@ -0,0 +1,64 @@
+package com.portfolio.repository;
+
+import com.portfolio.model.DailyPnl;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyPnlRepository extends JpaRepository<DailyPnl, Long> {
+
+    // Add P&L and a trade count (either may be negative) to one day, coin and exchange. Native updates name the
+    // table they write, otherwise Hibernate empties every second-level cache region after each one.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_pnl"))
+    @Query(value = "INSERT INTO daily_pnl (pnl_date, coin_key, exchange_key, realized_pnl, trade_count) " +
+                   "VALUES (:day, :coin, :exchange, :pnl, :trades) " +
+                   "ON DUPLICATE KEY UPDATE realized_pnl = realized_pnl + VALUES(realized_pnl), " +
+                   "trade_count = trade_count + VALUES(trade_count)", nativeQuery = true)
+    int addToDay(@Param("day") LocalDate day, @Param("coin") String coin, @Param("exchange") String exchange,
+                 @Param("pnl") BigDecimal pnl, @Param("trades") int trades);
+
+    // Drop a row once its last trade has been removed
+    @Modifying
+    @Query("DELETE FROM DailyPnl d WHERE d.pnlDate = :day AND d.coinKey = :coin AND d.exchangeKey = :exchange " +
+           "AND d.tradeCount <= 0")
+    int deleteIfEmpty(@Param("day") LocalDate day, @Param("coin") String coin, @Param("exchange") String exchange);
+
+    // Realized P&L per day over all coins and exchanges: [day, pnl]
+    @Query("SELECT d.pnlDate, SUM(d.realizedPnl) FROM DailyPnl d GROUP BY d.pnlDate")
+    List<Object[]> getProfitLossByDay();
+
+    // Realized P&L and closed trade count per day in a date range, optionally for one coin and/or
+    // exchange (upper-case keys): [day, pnl, trades]
+    @Query("SELECT d.pnlDate, SUM(d.realizedPnl), SUM(d.tradeCount) FROM DailyPnl d " +
+           "WHERE d.pnlDate BETWEEN :from AND :to " +
+           "AND (:coin IS NULL OR d.coinKey = :coin) AND (:exchange IS NULL OR d.exchangeKey = :exchange) " +
+           "GROUP BY d.pnlDate ORDER BY d.pnlDate")
+    List<Object[]> getDailyProfitLoss(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                      @Param("coin") String coin, @Param("exchange") String exchange);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_pnl"))
+    @Query(value = "DELETE FROM daily_pnl", nativeQuery = true)
+    int deleteAllRows();
+
+    // Recompute all rows from the closed trades (same grouping as the V5 migration)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "daily_pnl"))
+    @Query(value = "INSERT INTO daily_pnl (pnl_date, coin_key, exchange_key, realized_pnl, trade_count) " +
+                   "SELECT CAST(close_date AS DATE), coin_key, COALESCE(exchange_key, ''), SUM(profit_loss), COUNT(*) " +
+                   "FROM trades " +
+                   "WHERE status = 'CLOSED' AND close_date IS NOT NULL AND profit_loss IS NOT NULL " +
+                   "GROUP BY CAST(close_date AS DATE), coin_key, COALESCE(exchange_key, '')", nativeQuery = true)
+    int insertFromTrades();
+}
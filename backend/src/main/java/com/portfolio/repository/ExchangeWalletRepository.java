@@ -1,20 +1,47 @@
 package com.portfolio.repository;
 
 import com.portfolio.model.ExchangeWallet;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ExchangeWalletRepository extends JpaRepository<ExchangeWallet, Long> {
     
-    Optional<ExchangeWallet> findByExchangeNameIgnoreCase(String exchangeName);
-    
     boolean existsByExchangeNameIgnoreCase(String exchangeName);
+
+    // Atomically add to a wallet's balance; bumps the version so concurrent user edits fail instead of overwriting it.
+    // Synchronized on its own query space rather than exchange_wallets: an update Hibernate sees as touching the
+    // wallet table empties the whole wallet cache region, natural ids included. Callers soft-lock the one cached
+    // wallet instead (WalletBalanceService), so no wallet query may be made cacheable.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "wallet_balance"))
+    @Query(value = "UPDATE exchange_wallets SET total_balance = total_balance + :amount, version = version + 1, " +
+                   "updated_at = :now WHERE id = :id", nativeQuery = true)
+    int addToBalance(@Param("id") Long id, @Param("amount") BigDecimal amount, @Param("now") LocalDateTime now);
     
     @Query("SELECT SUM(e.totalBalance) FROM ExchangeWallet e")
     BigDecimal getTotalBalance();
+
+    // Each wallet with the count and total position size of its open trades: [wallet, count, sum]
+    @Query("SELECT w, COUNT(t.id), COALESCE(SUM(t.positionSize), 0) FROM ExchangeWallet w " +
+           "LEFT JOIN Trade t ON t.exchangeKey = w.exchangeKey AND t.status = 'OPEN' " +
+           "GROUP BY w ORDER BY w.id")
+    List<Object[]> getWalletsWithOpenPositions();
+
+    // One wallet with the count and total position size of its open trades: [wallet, count, sum]
+    @Query("SELECT w, COUNT(t.id), COALESCE(SUM(t.positionSize), 0) FROM ExchangeWallet w " +
+           "LEFT JOIN Trade t ON t.exchangeKey = w.exchangeKey AND t.status = 'OPEN' " +
+           "WHERE w.id = :id GROUP BY w")
+    List<Object[]> getWalletWithOpenPositions(@Param("id") Long id);
 }
@@ -1,13 +1,19 @@
 package com.portfolio.repository;
 
 import com.portfolio.model.Investment;
+import com.portfolio.model.TradeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface InvestmentRepository extends JpaRepository<Investment, Long> {
@@ -19,6 +25,35 @@ public interface InvestmentRepository extends JpaRepository<Investment, Long> {
     @Query("SELECT COALESCE(SUM(i.amount), 0) FROM Investment i WHERE i.trade.id = :tradeId")
     BigDecimal getTotalInvestedByTradeId(@Param("tradeId") Long tradeId);
 
+    // Stream all investments in id order, fetching rows from the database in chunks (export)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Investment i ORDER BY i.id")
+    Stream<Investment> streamAll();
+
     // Delete all investments for a trade
     void deleteByTradeId(Long tradeId);
+
+    // Revalue all investments of a trade. factor is the leverage, negated for SHORT trades.
+    @Modifying
+    @Query("UPDATE Investment i SET " +
+           "i.currentValue = i.amount + i.amount * :factor * (:price - i.priceAtInvestment) / i.priceAtInvestment, " +
+           "i.profitLoss = i.amount * :factor * (:price - i.priceAtInvestment) / i.priceAtInvestment " +
+           "WHERE i.trade.id = :tradeId")
+    int revalueInvestmentsForTrade(@Param("tradeId") Long tradeId, @Param("factor") BigDecimal factor,
+                                   @Param("price") BigDecimal price);
+
+    // Revalue investments of open trades of a coin sharing one trade type and leverage.
+    // factor is the leverage, negated for SHORT trades.
+    @Modifying
+    @Query("UPDATE Investment i SET " +
+           "i.currentValue = i.amount + i.amount * :factor * (:price - i.priceAtInvestment) / i.priceAtInvestment, " +
+           "i.profitLoss = i.amount * :factor * (:price - i.priceAtInvestment) / i.priceAtInvestment " +
+           "WHERE i.trade.id IN (SELECT t.id FROM Trade t WHERE t.coinKey = :coin AND t.status = 'OPEN' " +
+           "AND t.tradeType = :tradeType AND t.leverage = :leverage)")
+    int revalueInvestmentsForOpenTrades(@Param("coin") String coin, @Param("tradeType") TradeType tradeType,
+                                        @Param("leverage") Integer leverage, @Param("factor") BigDecimal factor,
+                                        @Param("price") BigDecimal price);
 }
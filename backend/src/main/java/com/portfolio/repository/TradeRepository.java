@@ -3,38 +3,59 @@ package com.portfolio.repository;
 import com.portfolio.model.Trade;
 import com.portfolio.model.TradeStatus;
 import com.portfolio.model.TradeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TradeRepository extends JpaRepository<Trade, Long> {
+public interface TradeRepository extends JpaRepository<Trade, Long>, JpaSpecificationExecutor<Trade> {
 
-    // Find trades by coin
-    List<Trade> findByCoinIgnoreCase(String coin);
+    // Read queries below take the result type: Trade for entities, or a read model record from
+    // com.portfolio.dto, which is selected with a constructor expression (no entities loaded)
+
+    // Find all trades
+    <T> List<T> findAllBy(Class<T> type);
+
+    // Find a trade by id
+    <T> Optional<T> findTradeById(Long id, Class<T> type);
+
+    // Find trades by coin (upper-cased)
+    <T> List<T> findByCoinKey(String coinKey, Class<T> type);
 
     // Find trades by status
     List<Trade> findByStatus(TradeStatus status);
 
+    <T> List<T> findByStatus(TradeStatus status, Class<T> type);
+
     // Find trades by type
-    List<Trade> findByTradeType(TradeType tradeType);
+    <T> List<T> findByTradeType(TradeType tradeType, Class<T> type);
 
     // Find trades by exchange
-    List<Trade> findByExchangeIgnoreCase(String exchange);
+    @Query("SELECT t FROM Trade t WHERE t.exchangeKey = UPPER(:exchange)")
+    List<Trade> findByExchangeIgnoreCase(@Param("exchange") String exchange);
 
     // Find trades by exchange and status
-    List<Trade> findByExchangeIgnoreCaseAndStatus(String exchange, TradeStatus status);
+    @Query("SELECT t FROM Trade t WHERE t.exchangeKey = UPPER(:exchange) AND t.status = :status")
+    List<Trade> findByExchangeIgnoreCaseAndStatus(@Param("exchange") String exchange, @Param("status") TradeStatus status);
 
     // Find trades between dates
-    List<Trade> findByTradeDateBetween(LocalDateTime startDate, LocalDateTime endDate);
+    <T> List<T> findByTradeDateBetween(LocalDateTime startDate, LocalDateTime endDate, Class<T> type);
 
     // Find trades by coin and status
-    List<Trade> findByCoinIgnoreCaseAndStatus(String coin, TradeStatus status);
+    @Query("SELECT t FROM Trade t WHERE t.coinKey = UPPER(:coin) AND t.status = :status")
+    List<Trade> findByCoinIgnoreCaseAndStatus(@Param("coin") String coin, @Param("status") TradeStatus status);
 
     // Get total profit/loss
     @Query("SELECT COALESCE(SUM(t.profitLoss), 0) FROM Trade t WHERE t.status = 'CLOSED'")
@@ -64,15 +85,25 @@ public interface TradeRepository extends JpaRepository<Trade, Long> {
     @Query("SELECT COALESCE(AVG(t.profitLoss), 0) FROM Trade t WHERE t.status = 'CLOSED' AND t.profitLoss < 0")
     BigDecimal getAverageLoss();
 
+    // Get total profit of winning trades
+    @Query("SELECT COALESCE(SUM(t.profitLoss), 0) FROM Trade t WHERE t.status = 'CLOSED' AND t.profitLoss > 0")
+    BigDecimal getTotalWinningProfit();
+
+    // Get total loss of losing trades
+    @Query("SELECT COALESCE(SUM(t.profitLoss), 0) FROM Trade t WHERE t.status = 'CLOSED' AND t.profitLoss < 0")
+    BigDecimal getTotalLosingLoss();
+
     // Get most traded coins
     @Query("SELECT t.coin, COUNT(t) as tradeCount FROM Trade t GROUP BY t.coin ORDER BY tradeCount DESC")
     List<Object[]> getMostTradedCoins();
 
-    // Get all unique coins
+    // Get all unique coins (query cache, invalidated by any write to trades)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT t.coin FROM Trade t ORDER BY t.coin")
     List<String> findAllUniqueCoins();
 
     // Get all unique exchanges
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT t.exchange FROM Trade t WHERE t.exchange IS NOT NULL ORDER BY t.exchange")
     List<String> findAllUniqueExchanges();
 
@@ -87,4 +118,51 @@ public interface TradeRepository extends JpaRepository<Trade, Long> {
     // Get total position size for closed trades
     @Query("SELECT COALESCE(SUM(t.positionSize), 0) FROM Trade t WHERE t.status = 'CLOSED'")
     BigDecimal getTotalClosedPositionSize();
+
+    // Mark all open trades of a coin to the given price
+    @Modifying
+    @Query("UPDATE Trade t SET t.currentPrice = :price, t.updatedAt = :now WHERE t.coinKey = :coin AND t.status = 'OPEN'")
+    int updateCurrentPriceForOpenTrades(@Param("coin") String coin, @Param("price") BigDecimal price,
+                                        @Param("now") LocalDateTime now);
+
+    // Add an investment lot change to a trade's running totals in place, so concurrent lot changes of one
+    // trade all count. The first lot replaces the position size the trade was entered with (no invested
+    // quantity yet). positionSize is assigned first: MySQL evaluates SET left to right, so it still reads
+    // the old invested quantity.
+    @Modifying
+    @Query("UPDATE Trade t SET " +
+           "t.positionSize = COALESCE(CASE WHEN t.investedQuantity IS NOT NULL THEN t.positionSize END, 0) + :amount, " +
+           "t.investedQuantity = COALESCE(t.investedQuantity, 0) + :quantity, t.updatedAt = :now WHERE t.id = :id")
+    int addToLotTotals(@Param("id") Long id, @Param("amount") BigDecimal amount,
+                       @Param("quantity") BigDecimal quantity, @Param("now") LocalDateTime now);
+
+    // A trade's running lot totals: [positionSize, investedQuantity]
+    @Query("SELECT t.positionSize, t.investedQuantity FROM Trade t WHERE t.id = :id")
+    List<Object[]> findLotTotals(@Param("id") Long id);
+
+    // Stream all trades in id order, fetching rows from the database in chunks (export)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Trade t ORDER BY t.id")
+    Stream<Trade> streamAll();
+
+    // Upper-case coins with open trades
+    @Query("SELECT DISTINCT t.coinKey FROM Trade t WHERE t.status = 'OPEN'")
+    List<String> findOpenCoinKeys();
+
+    // Stream [closeDate, profitLoss] of closed trades in close date order, read from idx_trades_status_close_date
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t.closeDate, t.profitLoss FROM Trade t " +
+           "WHERE t.status = 'CLOSED' AND t.closeDate >= :from AND t.closeDate < :to AND t.profitLoss IS NOT NULL " +
+           "ORDER BY t.closeDate, t.id")
+    Stream<Object[]> streamClosedProfitLoss(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Get the distinct (trade type, leverage) pairs among open trades of a coin
+    @Query("SELECT DISTINCT t.tradeType, t.leverage FROM Trade t WHERE t.coinKey = :coin AND t.status = 'OPEN'")
+    List<Object[]> findOpenTradeTypesAndLeveragesByCoin(@Param("coin") String coin);
 }
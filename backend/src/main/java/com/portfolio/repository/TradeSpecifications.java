@@ -0,0 +1,41 @@
+package com.portfolio.repository;
+
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+// Composable filters for trade queries; a null argument means "no filter"
+public final class TradeSpecifications {
+
+    private TradeSpecifications() {
+    }
+
+    public static Specification<Trade> coinEquals(String coin) {
+        return (root, query, cb) -> coin == null || coin.isBlank() ? null
+                : cb.equal(root.get("coinKey"), coin.trim().toUpperCase());
+    }
+
+    public static Specification<Trade> exchangeEquals(String exchange) {
+        return (root, query, cb) -> exchange == null || exchange.isBlank() ? null
+                : cb.equal(root.get("exchangeKey"), exchange.trim().toUpperCase());
+    }
+
+    public static Specification<Trade> hasStatus(TradeStatus status) {
+        return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Trade> hasType(TradeType tradeType) {
+        return (root, query, cb) -> tradeType == null ? null : cb.equal(root.get("tradeType"), tradeType);
+    }
+
+    public static Specification<Trade> tradeDateFrom(LocalDateTime from) {
+        return (root, query, cb) -> from == null ? null : cb.greaterThanOrEqualTo(root.get("tradeDate"), from);
+    }
+
+    public static Specification<Trade> tradeDateTo(LocalDateTime to) {
+        return (root, query, cb) -> to == null ? null : cb.lessThanOrEqualTo(root.get("tradeDate"), to);
+    }
+}
@@ -0,0 +1,15 @@
+package com.portfolio.repository;
+
+import com.portfolio.model.WalletBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface WalletBalanceSnapshotRepository extends JpaRepository<WalletBalanceSnapshot, Long> {
+
+    // Latest snapshot of a wallet taken as of `at` or earlier
+    Optional<WalletBalanceSnapshot> findFirstByWalletIdAndAsOfLessThanEqualOrderByAsOfDesc(Long walletId, LocalDateTime at);
+}
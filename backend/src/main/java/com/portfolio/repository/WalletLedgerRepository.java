@@ -0,0 +1,28 @@
+package com.portfolio.repository;
+
+import com.portfolio.model.WalletLedgerEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WalletLedgerRepository extends JpaRepository<WalletLedgerEntry, Long> {
+
+    // Sum and count of a wallet's entries created after `after` and at or before `upTo`: [sum, count]
+    @Query("SELECT COALESCE(SUM(e.amount), 0), COUNT(e.id) FROM WalletLedgerEntry e " +
+           "WHERE e.walletId = :walletId AND e.createdAt > :after AND e.createdAt <= :upTo")
+    List<Object[]> sumBetween(@Param("walletId") Long walletId, @Param("after") LocalDateTime after,
+                              @Param("upTo") LocalDateTime upTo);
+
+    // A wallet's entries in a time range, newest first
+    @Query("SELECT e FROM WalletLedgerEntry e " +
+           "WHERE e.walletId = :walletId AND e.createdAt >= :from AND e.createdAt < :to " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    List<WalletLedgerEntry> findEntries(@Param("walletId") Long walletId, @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to, Pageable pageable);
+}
@@ -0,0 +1,66 @@
+package com.portfolio.service;
+
+import com.portfolio.config.CacheConfig;
+import com.portfolio.event.TradeChangedEvent;
+import com.portfolio.event.TradesImportedEvent;
+import com.portfolio.event.WalletChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts cached views once the change that affects them has committed.
+ * Trades feed the coin/exchange lists and the wallet used balances; wallets feed the
+ * wallet views and the total balance. Price ticks feed none of them.
+ * <p>
+ * Runs ahead of the other commit listeners, so {@link DataVersion} only moves on once the
+ * stale entries are gone.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeChanged(TradeChangedEvent event) {
+        evictTradeViews();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradesImported(TradesImportedEvent event) {
+        evictTradeViews();
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWalletChanged(WalletChangedEvent event) {
+        clear(CacheConfig.WALLET_SUMMARIES);
+        clear(CacheConfig.WALLET_TOTAL_BALANCE);
+        Cache walletSummary = cacheManager.getCache(CacheConfig.WALLET_SUMMARY);
+        if (walletSummary != null && event.walletId() != null) {
+            walletSummary.evict(event.walletId());
+        }
+    }
+
+    private void evictTradeViews() {
+        clear(CacheConfig.TRADE_COINS);
+        clear(CacheConfig.TRADE_EXCHANGES);
+        // Used/available balances depend on open trades
+        clear(CacheConfig.WALLET_SUMMARIES);
+        clear(CacheConfig.WALLET_SUMMARY);
+    }
+
+    private void clear(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.portfolio.service;
+
+import com.portfolio.dto.PriceQuoteDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Prices from the CoinGecko simple price API (free tier, no key). All requested symbols are
+ * fetched with one request; symbols are mapped to CoinGecko coin ids with COIN_IDS, falling
+ * back to the lower-case symbol.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.prices.source", havingValue = "coingecko", matchIfMissing = true)
+public class CoinGeckoPriceSource implements PriceSource {
+
+    // Trading symbol -> CoinGecko id
+    static final Map<String, String> COIN_IDS = Map.ofEntries(
+            Map.entry("BTC", "bitcoin"),
+            Map.entry("ETH", "ethereum"),
+            Map.entry("SOL", "solana"),
+            Map.entry("XRP", "ripple"),
+            Map.entry("DOGE", "dogecoin"),
+            Map.entry("ADA", "cardano"),
+            Map.entry("AVAX", "avalanche-2"),
+            Map.entry("LINK", "chainlink"),
+            Map.entry("DOT", "polkadot"),
+            Map.entry("MATIC", "matic-network"),
+            Map.entry("SHIB", "shiba-inu"),
+            Map.entry("LTC", "litecoin"),
+            Map.entry("UNI", "uniswap"),
+            Map.entry("ATOM", "cosmos"),
+            Map.entry("XLM", "stellar"),
+            Map.entry("ETC", "ethereum-classic"),
+            Map.entry("FIL", "filecoin"),
+            Map.entry("APT", "aptos"),
+            Map.entry("ARB", "arbitrum"),
+            Map.entry("OP", "optimism"),
+            Map.entry("INJ", "injective-protocol"),
+            Map.entry("SUI", "sui"),
+            Map.entry("SEI", "sei-network"),
+            Map.entry("TIA", "celestia"),
+            Map.entry("NEAR", "near"),
+            Map.entry("FTM", "fantom"),
+            Map.entry("SAND", "the-sandbox"),
+            Map.entry("MANA", "decentraland"),
+            Map.entry("AXS", "axie-infinity"),
+            Map.entry("AAVE", "aave"),
+            Map.entry("CRV", "curve-dao-token"),
+            Map.entry("MKR", "maker"),
+            Map.entry("SNX", "havven"),
+            Map.entry("COMP", "compound-governance-token"),
+            Map.entry("LDO", "lido-dao"),
+            Map.entry("RPL", "rocket-pool"),
+            Map.entry("GMX", "gmx"),
+            Map.entry("DYDX", "dydx"),
+            Map.entry("PEPE", "pepe"),
+            Map.entry("WIF", "dogwifcoin"),
+            Map.entry("BONK", "bonk"),
+            Map.entry("FLOKI", "floki"),
+            Map.entry("WLD", "worldcoin-wld"),
+            Map.entry("BLUR", "blur"),
+            Map.entry("JTO", "jito-governance-token"),
+            Map.entry("JUP", "jupiter-exchange-solana"),
+            Map.entry("ONDO", "ondo-finance"),
+            Map.entry("ENA", "ethena"),
+            Map.entry("BNB", "binancecoin"),
+            Map.entry("TRX", "tron"),
+            Map.entry("TON", "the-open-network"),
+            Map.entry("BCH", "bitcoin-cash"),
+            Map.entry("LEO", "leo-token"),
+            Map.entry("OKB", "okb"),
+            Map.entry("KAS", "kaspa"),
+            Map.entry("RENDER", "render-token"),
+            Map.entry("TAO", "bittensor"),
+            Map.entry("VET", "vechain"),
+            Map.entry("ALGO", "algorand"),
+            Map.entry("RUNE", "thorchain"),
+            Map.entry("STX", "blockstack"),
+            Map.entry("FET", "fetch-ai"),
+            Map.entry("GRT", "the-graph"),
+            Map.entry("THETA", "theta-token"),
+            Map.entry("AR", "arweave"),
+            Map.entry("FLOW", "flow"),
+            Map.entry("GALA", "gala"),
+            Map.entry("NEO", "neo"),
+            Map.entry("KAVA", "kava"),
+            Map.entry("XTZ", "tezos"),
+            Map.entry("EOS", "eos"),
+            Map.entry("IOTA", "iota"),
+            Map.entry("XDC", "xdce-crowd-sale"),
+            Map.entry("EGLD", "elrond-erd-2"),
+            Map.entry("HNT", "helium"),
+            Map.entry("CAKE", "pancakeswap-token"),
+            Map.entry("1INCH", "1inch"),
+            Map.entry("SUSHI", "sushi"),
+            Map.entry("YFI", "yearn-finance"),
+            Map.entry("BAL", "balancer"),
+            Map.entry("ZRX", "0x"),
+            Map.entry("ENS", "ethereum-name-service"),
+            Map.entry("MASK", "mask-network"),
+            Map.entry("OCEAN", "ocean-protocol"),
+            Map.entry("AGIX", "singularitynet"),
+            Map.entry("RNDR", "render-token"),
+            Map.entry("IMX", "immutable-x"),
+            Map.entry("MINA", "mina-protocol"),
+            Map.entry("CFX", "conflux-token"),
+            Map.entry("ZIL", "zilliqa"),
+            Map.entry("QTUM", "qtum"),
+            Map.entry("WAVES", "waves"),
+            Map.entry("ICX", "icon"),
+            Map.entry("ZEC", "zcash"),
+            Map.entry("DASH", "dash"),
+            Map.entry("XMR", "monero"));
+
+    private static final ParameterizedTypeReference<Map<String, Map<String, BigDecimal>>> RESPONSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final RestClient restClient;
+
+    public CoinGeckoPriceSource(@Value("${app.prices.coingecko.url:https://api.coingecko.com/api/v3}") String baseUrl,
+                                @Value("${app.prices.fetch-timeout-ms:10000}") int timeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.restClient = RestClient.builder().baseUrl(baseUrl).requestFactory(requestFactory).build();
+    }
+
+    @Override
+    public Map<String, PriceQuoteDTO> fetch(Set<String> symbols) {
+        String ids = symbols.stream().map(CoinGeckoPriceSource::coinId).distinct().collect(Collectors.joining(","));
+
+        Map<String, Map<String, BigDecimal>> response = restClient.get()
+                .uri(uri -> uri.path("/simple/price")
+                        .queryParam("ids", ids)
+                        .queryParam("vs_currencies", "usd")
+                        .queryParam("include_24hr_change", "true")
+                        .build())
+                .retrieve()
+                .body(RESPONSE_TYPE);
+        if (response == null) {
+            return Map.of();
+        }
+
+        // Symbols sharing an id (RNDR, RENDER) all get its quote
+        Map<String, PriceQuoteDTO> quotes = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            Map<String, BigDecimal> data = response.get(coinId(symbol));
+            if (data != null && data.get("usd") != null) {
+                quotes.put(symbol, new PriceQuoteDTO(data.get("usd"), data.get("usd_24h_change")));
+            }
+        }
+        log.debug("Fetched {} of {} prices from CoinGecko", quotes.size(), symbols.size());
+        return quotes;
+    }
+
+    private static String coinId(String symbol) {
+        return COIN_IDS.getOrDefault(symbol, symbol.toLowerCase());
+    }
+}
@@ -0,0 +1,138 @@
+package com.portfolio.service;
+
+import com.portfolio.config.SchedulingConfig;
+import com.portfolio.dto.DailyPnlDTO;
+import com.portfolio.event.TradeChangedEvent;
+import com.portfolio.event.TradesAddedEvent;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.repository.DailyPnlRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the daily_pnl rollup (realized P&L per close day, coin and exchange) in step with
+ * closed trades. The rollup rows a TradeChangedEvent or TradesAddedEvent affects are adjusted
+ * just before its transaction commits, so range P&L and heatmap queries read a few rollup
+ * rows instead of scanning trades.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class DailyPnlService {
+
+    private final DailyPnlRepository dailyPnlRepository;
+    private final PortfolioSummaryAggregator summaryAggregator;
+
+    // Record a created, updated or deleted trade
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onTradeChanged(TradeChangedEvent event) {
+        Trade after = event.deleted() ? null : event.trade();
+        if (after != null) {
+            // P&L is otherwise only recalculated when the entity is flushed
+            after.calculateProfitLoss();
+        }
+        Map<Key, Delta> deltas = new LinkedHashMap<>();
+        merge(deltas, event.before() != null ? Entry.of(event.before()) : null, -1);
+        merge(deltas, after != null ? Entry.of(TradeChangedEvent.State.of(after)) : null, 1);
+        apply(deltas);
+    }
+
+    // Record the trades of an import batch, one statement per affected row
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onTradesAdded(TradesAddedEvent event) {
+        Map<Key, Delta> deltas = new LinkedHashMap<>();
+        for (Trade trade : event.trades()) {
+            merge(deltas, Entry.of(TradeChangedEvent.State.of(trade)), 1);
+        }
+        apply(deltas);
+    }
+
+    // Recompute the rollup from the trades table (nightly, and on demand after manual data fixes)
+    @Scheduled(cron = "${app.daily-pnl.rebuild-cron:0 30 3 * * *}", scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public int rebuild() {
+        dailyPnlRepository.deleteAllRows();
+        int rows = dailyPnlRepository.insertFromTrades();
+        log.debug("Daily P&L rollup rebuilt: {} rows", rows);
+        // The summary's per-day P&L was read from the old rollup
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                summaryAggregator.rebuild();
+            }
+        });
+        return rows;
+    }
+
+    // Realized P&L per day in a date range, optionally for one coin and/or exchange
+    @Transactional(readOnly = true)
+    public List<DailyPnlDTO> getDailyProfitLoss(LocalDate from, LocalDate to, String coin, String exchange) {
+        return dailyPnlRepository.getDailyProfitLoss(from, to, upper(coin), upper(exchange)).stream()
+                .map(row -> new DailyPnlDTO((LocalDate) row[0], (BigDecimal) row[1], ((Number) row[2]).longValue()))
+                .toList();
+    }
+
+    private static void merge(Map<Key, Delta> deltas, Entry entry, int sign) {
+        if (entry == null) {
+            return;
+        }
+        BigDecimal pnl = sign > 0 ? entry.profitLoss() : entry.profitLoss().negate();
+        deltas.merge(entry.key(), new Delta(pnl, sign), Delta::plus);
+    }
+
+    private void apply(Map<Key, Delta> deltas) {
+        deltas.forEach((key, delta) -> {
+            // An update that does not move the trade's P&L, day, coin or exchange cancels out
+            if (delta.trades() == 0 && delta.profitLoss().signum() == 0) {
+                return;
+            }
+            dailyPnlRepository.addToDay(key.day(), key.coin(), key.exchange(), delta.profitLoss(), delta.trades());
+            if (delta.trades() < 0) {
+                dailyPnlRepository.deleteIfEmpty(key.day(), key.coin(), key.exchange());
+            }
+        });
+    }
+
+    private static String upper(String value) {
+        return value != null && !value.isBlank() ? value.trim().toUpperCase() : null;
+    }
+
+    private record Key(LocalDate day, String coin, String exchange) {
+    }
+
+    private record Delta(BigDecimal profitLoss, int trades) {
+
+        Delta plus(Delta other) {
+            return new Delta(profitLoss.add(other.profitLoss), trades + other.trades);
+        }
+    }
+
+    // A closed trade's share of the rollup, keyed like the daily_pnl columns
+    private record Entry(Key key, BigDecimal profitLoss) {
+
+        static Entry of(TradeChangedEvent.State trade) {
+            if (trade.status() != TradeStatus.CLOSED || trade.closeDate() == null
+                    || trade.profitLoss() == null || trade.coin() == null) {
+                return null;
+            }
+            String exchange = trade.exchange() != null ? trade.exchange().toUpperCase() : "";
+            return new Entry(new Key(trade.closeDate().toLocalDate(), trade.coin().toUpperCase(), exchange),
+                    trade.profitLoss().setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.portfolio.service;
+
+import com.portfolio.event.PriceTickEvent;
+import com.portfolio.event.TradeChangedEvent;
+import com.portfolio.event.TradesImportedEvent;
+import com.portfolio.event.WalletChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A counter bumped after every committed trade, investment, wallet or price change. Trade and
+ * wallet read endpoints use it as their ETag, so a poll that finds nothing changed is answered
+ * with 304 Not Modified without running the handler or touching the database.
+ * <p>
+ * The bump runs after the other commit listeners (cache eviction in particular), so a request
+ * that sees the new version never gets a stale cached view; readers take the version before
+ * building the response, so a response is never tagged newer than its data.
+ * <p>
+ * Responses that also depend on the current date (the trade summary's today/week/month
+ * buckets) are tagged with the day as well, so they are rebuilt once the date changes.
+ */
+@Component
+public class DataVersion {
+
+    // Distinguishes the counters of different server runs
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    // ETag of the current version, e.g. W/"mfx2k1a-42". Weak, because the gzip and identity
+    // encodings of a response share it (Tomcat also refuses to compress under a strong ETag).
+    public String etag() {
+        return "W/\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    // ETag of the current version on the given day, e.g. W/"mfx2k1a-42-20260317"
+    public String etag(LocalDate day) {
+        return "W/\"" + epoch + "-" + version.get() + "-" + day.format(DateTimeFormatter.BASIC_ISO_DATE) + "\"";
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeChanged(TradeChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradesImported(TradesImportedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWalletChanged(WalletChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceTick(PriceTickEvent event) {
+        version.incrementAndGet();
+    }
+}
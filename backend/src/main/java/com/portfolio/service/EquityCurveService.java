@@ -0,0 +1,40 @@
+package com.portfolio.service;
+
+import com.portfolio.dto.EquityCurveDTO;
+import com.portfolio.repository.TradeRepository;
+import com.portfolio.util.EquityCurveAccumulator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Equity curve, drawdown and trade statistics of the closed trades in a close date range.
+ * Closed trades are read as (close date, P&L) pairs from a forward-only database stream and
+ * folded into an {@link EquityCurveAccumulator}, so neither the trades nor the full curve
+ * are held in memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class EquityCurveService {
+
+    private final TradeRepository tradeRepository;
+
+    // Curve of at most maxPoints points for trades closed in [from, to)
+    public EquityCurveDTO getEquityCurve(LocalDateTime from, LocalDateTime to, int maxPoints, BigDecimal initialEquity) {
+        EquityCurveAccumulator accumulator = new EquityCurveAccumulator(maxPoints, initialEquity);
+        try (Stream<Object[]> rows = tradeRepository.streamClosedProfitLoss(from, to)) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                accumulator.add((LocalDateTime) row[0], (BigDecimal) row[1]);
+            }
+        }
+        return accumulator.result();
+    }
+}
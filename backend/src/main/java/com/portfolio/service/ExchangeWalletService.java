@@ -1,11 +1,18 @@
 package com.portfolio.service;
 
+import com.portfolio.config.CacheConfig;
+import com.portfolio.config.ObservabilityConfig;
+import com.portfolio.event.WalletChangedEvent;
 import com.portfolio.model.ExchangeWallet;
-import com.portfolio.model.Trade;
-import com.portfolio.model.TradeStatus;
+import com.portfolio.model.WalletLedgerType;
 import com.portfolio.repository.ExchangeWalletRepository;
-import com.portfolio.repository.TradeRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,15 +23,39 @@ import java.util.Map;
 import java.util.Optional;
 
 @Service
-@RequiredArgsConstructor
+@Observed(name = ObservabilityConfig.SERVICE_OBSERVATION)
 @Transactional
 public class ExchangeWalletService {
 
     private final ExchangeWalletRepository walletRepository;
-    private final TradeRepository tradeRepository;
+    private final PortfolioSummaryAggregator summaryAggregator;
+    private final WalletBalanceService walletBalanceService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    // Take used balances from the in-memory margin tracking instead of the grouped query
+    private final boolean incrementalMargin;
+
+    public ExchangeWalletService(ExchangeWalletRepository walletRepository,
+                                 PortfolioSummaryAggregator summaryAggregator,
+                                 WalletBalanceService walletBalanceService,
+                                 ApplicationEventPublisher eventPublisher,
+                                 EntityManager entityManager,
+                                 @Value("${app.wallets.incremental-margin:false}") boolean incrementalMargin) {
+        this.walletRepository = walletRepository;
+        this.summaryAggregator = summaryAggregator;
+        this.walletBalanceService = walletBalanceService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.incrementalMargin = incrementalMargin;
+    }
 
     public ExchangeWallet createWallet(ExchangeWallet wallet) {
-        return walletRepository.save(wallet);
+        wallet.setVersion(null);
+        ExchangeWallet saved = walletRepository.save(wallet);
+        walletBalanceService.recordEntry(saved.getId(), WalletLedgerType.DEPOSIT, saved.getTotalBalance(),
+                "Opening balance");
+        eventPublisher.publishEvent(new WalletChangedEvent(saved.getId()));
+        return saved;
     }
 
     @Transactional(readOnly = true)
@@ -37,55 +68,85 @@ public class ExchangeWalletService {
         return walletRepository.findById(id);
     }
 
+    // Case-insensitive, by natural id (served from the second-level cache)
     @Transactional(readOnly = true)
     public Optional<ExchangeWallet> getWalletByExchange(String exchangeName) {
-        return walletRepository.findByExchangeNameIgnoreCase(exchangeName);
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(ExchangeWallet.class)
+                .loadOptional(ExchangeWallet.keyOf(exchangeName));
     }
 
     public ExchangeWallet updateWallet(Long id, ExchangeWallet walletDetails) {
+        // The edit replaces the balance, so it must say which copy it was made on
+        if (walletDetails.getVersion() == null) {
+            throw new IllegalArgumentException("Version is required to update wallet " + id);
+        }
         ExchangeWallet wallet = walletRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Wallet not found with id: " + id));
+        // Reject edits based on a stale copy (e.g. a trade close changed the balance meanwhile)
+        if (!walletDetails.getVersion().equals(wallet.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(ExchangeWallet.class, id);
+        }
+
+        // A balance typed in by the user is recorded as an adjustment of the difference
+        walletBalanceService.recordEntry(id, WalletLedgerType.ADJUSTMENT,
+                walletDetails.getTotalBalance().subtract(wallet.getTotalBalance()), "Balance edited");
 
         wallet.setExchangeName(walletDetails.getExchangeName());
         wallet.setTotalBalance(walletDetails.getTotalBalance());
         wallet.setNotes(walletDetails.getNotes());
 
-        return walletRepository.save(wallet);
+        ExchangeWallet saved = walletRepository.save(wallet);
+        eventPublisher.publishEvent(new WalletChangedEvent(saved.getId()));
+        return saved;
     }
 
     public void deleteWallet(Long id) {
         ExchangeWallet wallet = walletRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Wallet not found with id: " + id));
         walletRepository.delete(wallet);
+        eventPublisher.publishEvent(new WalletChangedEvent(id));
     }
 
     // Get wallet summary with used/available balance
+    @Cacheable(cacheNames = CacheConfig.WALLET_SUMMARY, key = "#walletId")
     @Transactional(readOnly = true)
     public Map<String, Object> getWalletSummary(Long walletId) {
-        ExchangeWallet wallet = walletRepository.findById(walletId)
+        if (incrementalMargin) {
+            ExchangeWallet wallet = walletRepository.findById(walletId)
+                    .orElseThrow(() -> new RuntimeException("Wallet not found with id: " + walletId));
+            return summaryFromMargin(wallet);
+        }
+        return walletRepository.getWalletWithOpenPositions(walletId).stream()
+                .findFirst()
+                .map(this::summaryFromRow)
                 .orElseThrow(() -> new RuntimeException("Wallet not found with id: " + walletId));
-
-        return calculateWalletSummary(wallet);
     }
 
-    // Get all wallets with summaries
+    // Get all wallets with summaries (one query)
+    @Cacheable(CacheConfig.WALLET_SUMMARIES)
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getAllWalletSummaries() {
-        List<ExchangeWallet> wallets = walletRepository.findAll();
-        return wallets.stream()
-                .map(this::calculateWalletSummary)
+        if (incrementalMargin) {
+            return walletRepository.findAll().stream()
+                    .map(this::summaryFromMargin)
+                    .toList();
+        }
+        return walletRepository.getWalletsWithOpenPositions().stream()
+                .map(this::summaryFromRow)
                 .toList();
     }
 
-    private Map<String, Object> calculateWalletSummary(ExchangeWallet wallet) {
-        // Get all open trades for this exchange
-        List<Trade> openTrades = tradeRepository.findByExchangeIgnoreCaseAndStatus(
-                wallet.getExchangeName(), TradeStatus.OPEN);
+    private Map<String, Object> summaryFromRow(Object[] row) {
+        return buildWalletSummary((ExchangeWallet) row[0], (BigDecimal) row[2], ((Number) row[1]).longValue());
+    }
 
-        BigDecimal usedBalance = openTrades.stream()
-                .map(t -> t.getPositionSize() != null ? t.getPositionSize() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private Map<String, Object> summaryFromMargin(ExchangeWallet wallet) {
+        PortfolioSummaryAggregator.ExchangeMargin margin = summaryAggregator.getExchangeMargin(wallet.getExchangeName());
+        return buildWalletSummary(wallet, margin.usedMargin(), margin.openTrades());
+    }
 
+    private Map<String, Object> buildWalletSummary(ExchangeWallet wallet, BigDecimal usedBalance, long openTradesCount) {
         BigDecimal availableBalance = wallet.getTotalBalance().subtract(usedBalance);
 
         Map<String, Object> summary = new HashMap<>();
@@ -94,14 +155,16 @@ public class ExchangeWalletService {
         summary.put("totalBalance", wallet.getTotalBalance());
         summary.put("usedBalance", usedBalance);
         summary.put("availableBalance", availableBalance);
-        summary.put("openTradesCount", openTrades.size());
+        summary.put("openTradesCount", openTradesCount);
         summary.put("notes", wallet.getNotes());
         summary.put("updatedAt", wallet.getUpdatedAt());
+        summary.put("version", wallet.getVersion());
 
         return summary;
     }
 
     // Get total balance across all exchanges
+    @Cacheable(CacheConfig.WALLET_TOTAL_BALANCE)
     @Transactional(readOnly = true)
     public BigDecimal getTotalBalance() {
         BigDecimal total = walletRepository.getTotalBalance();
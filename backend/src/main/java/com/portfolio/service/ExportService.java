@@ -0,0 +1,136 @@
+package com.portfolio.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.portfolio.dto.DataFormat;
+import com.portfolio.dto.InvestmentDTO;
+import com.portfolio.model.Investment;
+import com.portfolio.model.Trade;
+import com.portfolio.repository.InvestmentRepository;
+import com.portfolio.repository.TradeRepository;
+import com.portfolio.util.CsvWriter;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes all trades or investments as CSV or NDJSON while reading them from a forward-only
+ * database stream. The persistence context is cleared every CLEAR_INTERVAL rows, so memory use
+ * does not grow with the table size. CSV columns use the Trade field names accepted by the import.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+
+    private static final int CLEAR_INTERVAL = 1000;
+
+    private static final List<String> TRADE_COLUMNS = List.of(
+            "id", "coin", "tradeType", "entryPrice", "exitPrice", "currentPrice", "quantity", "leverage",
+            "positionSize", "profitLoss", "profitLossPercentage", "fees", "exchange", "status", "notes",
+            "stopLoss", "takeProfit", "liquidationPrice", "tpHit", "liquidated", "closeReason",
+            "tradeDate", "closeDate", "createdAt", "updatedAt");
+
+    private static final List<String> INVESTMENT_COLUMNS = List.of(
+            "id", "tradeId", "amount", "priceAtInvestment", "currentValue", "profitLoss", "notes",
+            "investmentDate", "createdAt");
+
+    private final TradeRepository tradeRepository;
+    private final InvestmentRepository investmentRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+
+    public ExportService(TradeRepository tradeRepository,
+                         InvestmentRepository investmentRepository,
+                         EntityManager entityManager,
+                         ObjectMapper objectMapper) {
+        this.tradeRepository = tradeRepository;
+        this.investmentRepository = investmentRepository;
+        this.entityManager = entityManager;
+        // One JSON document per line on a shared writer: don't flush or close it after each row
+        this.jsonWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    // Export all trades ordered by id
+    public void exportTrades(DataFormat format, OutputStream out) throws IOException {
+        try (Stream<Trade> trades = tradeRepository.streamAll()) {
+            write(trades, format, out, TRADE_COLUMNS, ExportService::tradeRow, trade -> trade);
+        }
+    }
+
+    // Export all investments ordered by id
+    public void exportInvestments(DataFormat format, OutputStream out) throws IOException {
+        try (Stream<Investment> investments = investmentRepository.streamAll()) {
+            write(investments, format, out, INVESTMENT_COLUMNS, ExportService::investmentRow, ExportService::toDTO);
+        }
+    }
+
+    private <T> void write(Stream<T> rows, DataFormat format, OutputStream out, List<String> columns,
+                           Function<T, List<Object>> csvRow, Function<T, Object> jsonRow) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        CsvWriter csv = format == DataFormat.CSV ? new CsvWriter(writer) : null;
+        if (csv != null) {
+            csv.writeRow(columns);
+        }
+
+        long count = 0;
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (csv != null) {
+                csv.writeRow(csvRow.apply(row));
+            } else {
+                jsonWriter.writeValue(writer, jsonRow.apply(row));
+                writer.write('\n');
+            }
+            // Detach what has been written so the persistence context stays small
+            if (++count % CLEAR_INTERVAL == 0) {
+                entityManager.clear();
+            }
+        }
+        writer.flush();
+    }
+
+    private static List<Object> tradeRow(Trade t) {
+        return Arrays.asList(
+                t.getId(), t.getCoin(), t.getTradeType(), plain(t.getEntryPrice()), plain(t.getExitPrice()),
+                plain(t.getCurrentPrice()), plain(t.getQuantity()), t.getLeverage(), plain(t.getPositionSize()),
+                plain(t.getProfitLoss()), plain(t.getProfitLossPercentage()), plain(t.getFees()), t.getExchange(),
+                t.getStatus(), t.getNotes(), plain(t.getStopLoss()), plain(t.getTakeProfit()),
+                plain(t.getLiquidationPrice()), t.getTpHit(), t.getLiquidated(), t.getCloseReason(),
+                t.getTradeDate(), t.getCloseDate(), t.getCreatedAt(), t.getUpdatedAt());
+    }
+
+    private static List<Object> investmentRow(Investment i) {
+        return Arrays.asList(
+                i.getId(), i.getTrade().getId(), plain(i.getAmount()), plain(i.getPriceAtInvestment()),
+                plain(i.getCurrentValue()), plain(i.getProfitLoss()), i.getNotes(), i.getInvestmentDate(),
+                i.getCreatedAt());
+    }
+
+    // getId() on the lazy trade proxy does not load the trade
+    private static InvestmentDTO toDTO(Investment i) {
+        return new InvestmentDTO(i.getId(), i.getTrade().getId(), i.getAmount(), i.getPriceAtInvestment(),
+                i.getCurrentValue(), i.getProfitLoss(), i.getNotes(), i.getInvestmentDate(), i.getCreatedAt());
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+}
@@ -0,0 +1,67 @@
+package com.portfolio.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.dto.PriceQuoteDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replays recorded prices from an NDJSON file (app.prices.file), one snapshot per line:
+ * {"BTC": {"price": 67000, "change24h": 1.2}, "ETH": {"price": 3500}}. Each fetch returns
+ * the next snapshot, wrapping around at the end of the file. For local runs and tests
+ * without network access.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.prices.source", havingValue = "file")
+public class FilePriceSource implements PriceSource {
+
+    private static final TypeReference<Map<String, PriceQuoteDTO>> SNAPSHOT_TYPE = new TypeReference<>() {
+    };
+
+    private final List<Map<String, PriceQuoteDTO>> snapshots = new ArrayList<>();
+    private int next;
+
+    public FilePriceSource(@Value("${app.prices.file}") Path file, ObjectMapper objectMapper) throws IOException {
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            Map<String, PriceQuoteDTO> snapshot = new LinkedHashMap<>();
+            objectMapper.readValue(line, SNAPSHOT_TYPE).forEach((symbol, quote) -> snapshot.put(symbol.toUpperCase(), quote));
+            snapshots.add(snapshot);
+        }
+        if (snapshots.isEmpty()) {
+            throw new IOException("No price snapshots in " + file);
+        }
+        log.debug("Loaded {} price snapshots from {}", snapshots.size(), file);
+    }
+
+    @Override
+    public synchronized Map<String, PriceQuoteDTO> fetch(Set<String> symbols) {
+        Map<String, PriceQuoteDTO> snapshot = snapshots.get(next);
+        next = (next + 1) % snapshots.size();
+
+        Map<String, PriceQuoteDTO> quotes = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            PriceQuoteDTO quote = snapshot.get(symbol);
+            if (quote != null) {
+                quotes.put(symbol, quote);
+            }
+        }
+        return quotes;
+    }
+}
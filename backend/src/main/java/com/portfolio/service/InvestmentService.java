@@ -1,26 +1,35 @@
 package com.portfolio.service;
 
+import com.portfolio.config.ObservabilityConfig;
 import com.portfolio.dto.InvestmentDTO;
+import com.portfolio.event.TradeChangedEvent;
 import com.portfolio.model.Investment;
 import com.portfolio.model.Trade;
+import com.portfolio.model.TradeType;
 import com.portfolio.repository.InvestmentRepository;
 import com.portfolio.repository.TradeRepository;
+import com.portfolio.util.PnlCalculator;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Observed(name = ObservabilityConfig.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 @Transactional
 public class InvestmentService {
 
     private final InvestmentRepository investmentRepository;
     private final TradeRepository tradeRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Add investment to a trade
     public InvestmentDTO addInvestment(Long tradeId, InvestmentDTO dto) {
@@ -42,7 +51,7 @@ public class InvestmentService {
         Investment saved = investmentRepository.save(investment);
         
         // Update trade's total position size
-        updateTradePositionSize(trade);
+        applyLotChange(trade, null, Lot.of(saved));
         
         return toDTO(saved);
     }
@@ -60,6 +69,7 @@ public class InvestmentService {
     public InvestmentDTO updateInvestment(Long id, InvestmentDTO dto) {
         Investment investment = investmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Investment not found with id: " + id));
+        Lot before = Lot.of(investment);
 
         investment.setAmount(dto.getAmount());
         investment.setPriceAtInvestment(dto.getPriceAtInvestment());
@@ -75,7 +85,7 @@ public class InvestmentService {
         Investment saved = investmentRepository.save(investment);
         
         // Update trade's total position size
-        updateTradePositionSize(trade);
+        applyLotChange(trade, before, Lot.of(saved));
         
         return toDTO(saved);
     }
@@ -86,10 +96,11 @@ public class InvestmentService {
                 .orElseThrow(() -> new RuntimeException("Investment not found with id: " + id));
         
         Trade trade = investment.getTrade();
+        Lot before = Lot.of(investment);
         investmentRepository.delete(investment);
         
         // Update trade's total position size
-        updateTradePositionSize(trade);
+        applyLotChange(trade, before, null);
     }
 
     // Get total invested for a trade
@@ -98,13 +109,26 @@ public class InvestmentService {
         return investmentRepository.getTotalInvestedByTradeId(tradeId);
     }
 
-    // Update all investments when trade's current price changes
-    public void updateAllInvestmentsForTrade(Trade trade) {
-        List<Investment> investments = investmentRepository.findByTradeIdOrderByInvestmentDateDesc(trade.getId());
-        for (Investment investment : investments) {
-            updateInvestmentValue(investment, trade);
-            investmentRepository.save(investment);
+    // Update all investments when trade's current price changes (one UPDATE statement)
+    public int updateAllInvestmentsForTrade(Trade trade) {
+        if (trade.getCurrentPrice() == null) {
+            return 0;
+        }
+        return investmentRepository.revalueInvestmentsForTrade(
+                trade.getId(), leverageFactor(trade.getTradeType(), trade.getLeverage()), trade.getCurrentPrice());
+    }
+
+    // Update the investments of all open trades of a coin to a new price
+    public int updateAllInvestmentsForCoin(String coin, BigDecimal price) {
+        int updated = 0;
+        // One statement per (trade type, leverage) pair, since both feed the investment formula
+        for (Object[] shape : tradeRepository.findOpenTradeTypesAndLeveragesByCoin(coin)) {
+            TradeType tradeType = (TradeType) shape[0];
+            Integer leverage = (Integer) shape[1];
+            updated += investmentRepository.revalueInvestmentsForOpenTrades(
+                    coin, tradeType, leverage, leverageFactor(tradeType, leverage), price);
         }
+        return updated;
     }
 
     // Helper: Calculate current value and P&L for an investment
@@ -115,34 +139,47 @@ public class InvestmentService {
         Integer leverage = trade.getLeverage();
 
         if (currentPrice != null && entryPrice != null && amount != null) {
-            // Calculate price change percentage
-            BigDecimal priceChange;
-            if (trade.getTradeType().name().equals("LONG")) {
-                priceChange = currentPrice.subtract(entryPrice)
-                        .divide(entryPrice, 8, RoundingMode.HALF_UP);
-            } else {
-                priceChange = entryPrice.subtract(currentPrice)
-                        .divide(entryPrice, 8, RoundingMode.HALF_UP);
-            }
-
-            // Apply leverage
-            BigDecimal leveragedChange = priceChange.multiply(BigDecimal.valueOf(leverage));
-            
-            // Calculate current value
-            BigDecimal currentValue = amount.multiply(BigDecimal.ONE.add(leveragedChange));
-            investment.setCurrentValue(currentValue.setScale(2, RoundingMode.HALF_UP));
-            
-            // Calculate P&L
-            BigDecimal profitLoss = currentValue.subtract(amount);
-            investment.setProfitLoss(profitLoss.setScale(2, RoundingMode.HALF_UP));
+            PnlCalculator.Valuation valuation = PnlCalculator.Valuation.of(
+                    amount, entryPrice, currentPrice, leverage, trade.getTradeType());
+            investment.setCurrentValue(valuation.currentValue().setScale(2, RoundingMode.HALF_UP));
+            investment.setProfitLoss(valuation.profitLoss().setScale(2, RoundingMode.HALF_UP));
+        }
+    }
+
+    // Helper: Move the trade's invested total, coins bought and average entry price by one lot change
+    private void applyLotChange(Trade trade, Lot removed, Lot added) {
+        TradeChangedEvent.State before = TradeChangedEvent.State.of(trade);
+
+        BigDecimal amount = BigDecimal.ZERO;
+        BigDecimal quantity = BigDecimal.ZERO;
+        if (removed != null) {
+            amount = amount.subtract(removed.amount());
+            quantity = quantity.subtract(removed.quantity());
+        }
+        if (added != null) {
+            amount = amount.add(added.amount());
+            quantity = quantity.add(added.quantity());
         }
+
+        // Add the change to the stored totals rather than writing back totals read earlier, which
+        // would drop a concurrent lot change of the same trade. The update keeps the row locked until
+        // commit, so the totals read back are final and the average derived from them stays in step.
+        tradeRepository.addToLotTotals(trade.getId(), amount, quantity, LocalDateTime.now());
+        Object[] totals = tradeRepository.findLotTotals(trade.getId()).get(0);
+        BigDecimal invested = (BigDecimal) totals[0];
+        BigDecimal investedQuantity = (BigDecimal) totals[1];
+        trade.setPositionSize(invested);
+        trade.setInvestedQuantity(investedQuantity);
+        trade.setAverageEntryPrice(investedQuantity.signum() > 0
+                ? invested.divide(investedQuantity, PnlCalculator.PRICE_SCALE, RoundingMode.HALF_UP) : null);
+
+        Trade savedTrade = tradeRepository.save(trade);
+        eventPublisher.publishEvent(TradeChangedEvent.saved(before, savedTrade));
     }
 
-    // Helper: Update trade's position size based on total investments
-    private void updateTradePositionSize(Trade trade) {
-        BigDecimal totalInvested = investmentRepository.getTotalInvestedByTradeId(trade.getId());
-        trade.setPositionSize(totalInvested);
-        tradeRepository.save(trade);
+    private static BigDecimal leverageFactor(TradeType tradeType, Integer leverage) {
+        int value = leverage != null ? leverage : 1;
+        return BigDecimal.valueOf(tradeType == TradeType.LONG ? value : -value);
     }
 
     // Helper: Convert to DTO
@@ -159,4 +196,14 @@ public class InvestmentService {
         dto.setCreatedAt(investment.getCreatedAt());
         return dto;
     }
+
+    // An investment's amount and the coins it bought, as counted in the trade's running totals
+    private record Lot(BigDecimal amount, BigDecimal quantity) {
+
+        static Lot of(Investment investment) {
+            BigDecimal amount = investment.getAmount().setScale(PnlCalculator.AMOUNT_SCALE, RoundingMode.HALF_UP);
+            return new Lot(amount, amount.divide(investment.getPriceAtInvestment(),
+                    PnlCalculator.PRICE_SCALE, RoundingMode.HALF_UP));
+        }
+    }
 }
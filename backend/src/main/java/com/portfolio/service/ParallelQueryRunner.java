@@ -0,0 +1,64 @@
+package com.portfolio.service;
+
+import com.portfolio.config.ExecutorConfig;
+import com.portfolio.util.SqlStatementCounter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read queries concurrently when app.summary.parallel-queries is on.
+ * <p>
+ * Each submitted query runs on the query executor in its own read-only transaction, so it
+ * uses its own connection; the returned supplier waits for the result. When the switch is
+ * off, queries run immediately on the calling thread inside the caller's transaction.
+ */
+@Service
+public class ParallelQueryRunner {
+
+    private final AsyncTaskExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean parallel;
+
+    public ParallelQueryRunner(@Qualifier(ExecutorConfig.QUERY_EXECUTOR) AsyncTaskExecutor executor,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.summary.parallel-queries:false}") boolean parallel) {
+        this.executor = executor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.parallel = parallel;
+    }
+
+    // Start a query; get() on the result returns its value or rethrows its failure
+    public <T> Supplier<T> submit(Supplier<T> query) {
+        if (!parallel) {
+            T result = query.get();
+            return () -> result;
+        }
+        // Statements run on the executor still count towards the calling request
+        Supplier<T> task = SqlStatementCounter.propagate(() -> readOnlyTransaction.execute(status -> query.get()));
+        Future<T> future = executor.submit(task::get);
+        return () -> join(future);
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Query failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a query", e);
+        }
+    }
+}
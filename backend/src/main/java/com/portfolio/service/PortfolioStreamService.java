@@ -0,0 +1,310 @@
+package com.portfolio.service;
+
+import com.portfolio.event.PriceTickEvent;
+import com.portfolio.event.TradeChangedEvent;
+import com.portfolio.event.TradesImportedEvent;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes live portfolio changes to Server-Sent Events subscribers.
+ * <p>
+ * Each subscriber has its own bounded buffer of pending frames, coalesced by key so only the
+ * latest state of a trade is kept. A subscriber that falls further behind than the buffer
+ * allows gets its backlog dropped and a single "resync" event telling it to reload.
+ * <p>
+ * Frames are written by a small shared pool of sender threads. A subscriber whose write stays
+ * blocked longer than the send timeout (a client that stopped reading) is dropped, and the pool
+ * gets an extra thread until that write fails, so one stalled client cannot hold up the others.
+ */
+@Slf4j
+@Service
+public class PortfolioStreamService {
+
+    private final PortfolioSummaryAggregator summaryAggregator;
+    private final long timeoutMs;
+    private final int bufferSize;
+    private final long sendTimeoutNanos;
+    private final ThreadPoolExecutor sender;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    public PortfolioStreamService(PortfolioSummaryAggregator summaryAggregator,
+                                  @Value("${app.stream.timeout-ms:1800000}") long timeoutMs,
+                                  @Value("${app.stream.buffer-size:256}") int bufferSize,
+                                  @Value("${app.stream.sender-threads:2}") int senderThreads,
+                                  @Value("${app.stream.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.summaryAggregator = summaryAggregator;
+        this.timeoutMs = timeoutMs;
+        this.bufferSize = bufferSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "portfolio-stream-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Register a new subscriber and send it the current summary
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> {
+            subscribers.remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        subscriber.offer("summary", "summary", summaryAggregator.getSummary());
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeChanged(TradeChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Trade trade = event.trade();
+        String key = "trade:" + trade.getId();
+        if (event.deleted()) {
+            broadcast(key, "trade-deleted", Map.of("id", trade.getId()));
+            return;
+        }
+
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("id", trade.getId());
+        frame.put("coin", trade.getCoin());
+        frame.put("status", trade.getStatus());
+        frame.put("currentPrice", trade.getCurrentPrice());
+        if (trade.getStatus() == TradeStatus.OPEN) {
+            frame.put("unrealizedPnL", summaryAggregator.snapshot(trade).open().unrealizedPnL());
+        } else {
+            frame.put("exitPrice", trade.getExitPrice());
+            frame.put("profitLoss", trade.getProfitLoss());
+        }
+        broadcast(key, "trade", frame);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceTick(PriceTickEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (PortfolioSummaryAggregator.OpenPosition position : summaryAggregator.getOpenPositions(event.coin())) {
+            PortfolioSummaryAggregator.OpenPosition revalued = position.withPrice(event.price());
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("id", revalued.tradeId());
+            frame.put("coin", revalued.coin());
+            frame.put("status", TradeStatus.OPEN);
+            frame.put("currentPrice", revalued.currentPrice());
+            frame.put("unrealizedPnL", revalued.unrealizedPnL());
+            broadcast("trade:" + revalued.tradeId(), "trade", frame);
+        }
+    }
+
+    // Too many changes to stream one by one: tell every subscriber to reload
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradesImported(TradesImportedEvent event) {
+        subscribers.forEach(Subscriber::resync);
+    }
+
+    // Periodically push a full summary frame
+    @Scheduled(fixedRateString = "${app.stream.summary-interval-ms:5000}")
+    public void publishSummary() {
+        if (!subscribers.isEmpty()) {
+            broadcast("summary", "summary", summaryAggregator.getSummary());
+        }
+    }
+
+    // Drop subscribers whose write has been blocked longer than the send timeout
+    @Scheduled(fixedDelayString = "${app.stream.send-check-interval-ms:1000}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStartedNanos;
+            if (started != 0 && now - started > sendTimeoutNanos) {
+                subscriber.abandon();
+            }
+        }
+    }
+
+    // Sender threads blocked by abandoned subscribers are replaced while they stay blocked
+    private synchronized void resizeSender(int delta) {
+        if (delta > 0) {
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + delta);
+            sender.setCorePoolSize(sender.getCorePoolSize() + delta);
+        } else {
+            sender.setCorePoolSize(sender.getCorePoolSize() + delta);
+            sender.setMaximumPoolSize(sender.getMaximumPoolSize() + delta);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        sender.shutdownNow();
+    }
+
+    private void broadcast(String key, String name, Object data) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(key, name, data);
+        }
+    }
+
+    private record Frame(String name, Object data) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final LinkedHashMap<String, Frame> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+        private boolean draining;
+        // Start of the write in progress (0 when idle) and the thread doing it
+        private volatile long sendStartedNanos;
+        private volatile Thread sendingThread;
+        private volatile boolean abandoned;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(String key, String name, Object data) {
+            if (overflowed) {
+                return;
+            }
+            // Re-insert so coalesced frames keep the order of their latest change
+            pending.remove(key);
+            if (pending.size() >= bufferSize) {
+                pending.clear();
+                overflowed = true;
+            } else {
+                pending.put(key, new Frame(name, data));
+            }
+            startDraining();
+        }
+
+        // Drop the backlog and send a single "resync" event
+        synchronized void resync() {
+            pending.clear();
+            overflowed = true;
+            startDraining();
+        }
+
+        private void startDraining() {
+            if (!draining) {
+                draining = true;
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<Frame> batch;
+                boolean resync;
+                synchronized (this) {
+                    if (pending.isEmpty() && !overflowed) {
+                        draining = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                    resync = overflowed;
+                    overflowed = false;
+                    sendingThread = Thread.currentThread();
+                    sendStartedNanos = System.nanoTime();
+                }
+
+                boolean failed = false;
+                try {
+                    if (resync) {
+                        emitter.send(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+                    }
+                    for (Frame frame : batch) {
+                        emitter.send(SseEmitter.event().name(frame.name()).data(frame.data(), MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping portfolio stream subscriber: {}", e.getMessage());
+                    failed = true;
+                }
+
+                boolean wasAbandoned;
+                synchronized (this) {
+                    sendStartedNanos = 0;
+                    sendingThread = null;
+                    wasAbandoned = abandoned;
+                    if (failed || wasAbandoned) {
+                        pending.clear();
+                        draining = false;
+                    }
+                }
+                if (wasAbandoned) {
+                    finishAbandoned();
+                    return;
+                }
+                if (failed) {
+                    subscribers.remove(this);
+                    return;
+                }
+            }
+        }
+
+        // Called by the stall check while a write is blocked: stop feeding this subscriber and give the
+        // pool a thread in place of the blocked one. The blocked thread completes the emitter once its
+        // write returns (completing it here would wait on the emitter's lock, held by that write).
+        void abandon() {
+            Thread blocked;
+            synchronized (this) {
+                if (abandoned || sendStartedNanos == 0) {
+                    return;
+                }
+                abandoned = true;
+                blocked = sendingThread;
+            }
+            subscribers.remove(this);
+            resizeSender(1);
+            log.warn("Dropping portfolio stream subscriber blocked on a write for over {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+            blocked.interrupt();
+        }
+
+        private void finishAbandoned() {
+            resizeSender(-1);
+            Thread.interrupted();
+            try {
+                emitter.completeWithError(new IOException("Subscriber stopped reading"));
+            } catch (IllegalStateException e) {
+                // already completed
+            }
+        }
+    }
+}
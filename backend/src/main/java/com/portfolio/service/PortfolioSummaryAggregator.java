@@ -0,0 +1,499 @@
+package com.portfolio.service;
+
+import com.portfolio.dto.TradeSummaryDTO;
+import com.portfolio.event.TradeChangedEvent;
+import com.portfolio.event.TradesAddedEvent;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+import com.portfolio.repository.DailyPnlRepository;
+import com.portfolio.repository.TradeRepository;
+import com.portfolio.util.PnlCalculator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the portfolio summary up to date in memory so that /api/trades/summary
+ * is a constant-time read. The difference between the before and after state of
+ * every TradeChangedEvent (and the trades of every TradesAddedEvent) is applied
+ * once the surrounding transaction commits.
+ * <p>
+ * A rebuild replaces the totals with what its queries read, so no change may commit
+ * between those queries and the replacement: it would be counted by some queries and
+ * not others, or its delta overwritten. Transactions that report changes pass a gate
+ * from just before their commit until their delta is applied, and a rebuild closes the
+ * gate once no commit is passing it. The first rebuild runs before the web server
+ * starts taking requests.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PortfolioSummaryAggregator implements SmartInitializingSingleton {
+
+    private final TradeRepository tradeRepository;
+    private final DailyPnlRepository dailyPnlRepository;
+    private final ParallelQueryRunner queries;
+
+    private final CommitGate commitGate = new CommitGate();
+
+    private long totalTrades;
+    private long openTrades;
+    private long closedTrades;
+    private long winningTrades;
+    private long losingTrades;
+
+    private BigDecimal totalPositionSize = BigDecimal.ZERO;
+    private BigDecimal realizedPnL = BigDecimal.ZERO;
+    private BigDecimal winningSum = BigDecimal.ZERO;
+    private BigDecimal losingSum = BigDecimal.ZERO;
+    private BigDecimal openCurrentValue = BigDecimal.ZERO;
+    private BigDecimal unrealizedPnL = BigDecimal.ZERO;
+
+    // Realized P&L of closed trades keyed by close date
+    private final TreeMap<LocalDate, BigDecimal> realizedByDay = new TreeMap<>();
+
+    // Open positions keyed by upper-case coin, then trade id, so price ticks can revalue them in memory
+    private final Map<String, Map<Long, OpenPosition>> openPositions = new HashMap<>();
+
+    // Margin held by open positions keyed by upper-case exchange
+    private final Map<String, ExchangeMargin> marginByExchange = new HashMap<>();
+
+    // Build the totals before the application serves requests
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    // Rebuild all totals from the database, holding off reported commits until they are replaced
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        commitGate.close();
+        try {
+            load();
+        } finally {
+            commitGate.open();
+        }
+        log.debug("Portfolio summary rebuilt: {} trades, {} open", totalTrades, openTrades);
+    }
+
+    private void load() {
+        // The queries are independent; ParallelQueryRunner may run them side by side. No reported
+        // change commits while they run, so they read the same trades even on separate connections
+        Supplier<List<Trade>> open = queries.submit(() -> tradeRepository.findByStatus(TradeStatus.OPEN));
+        Supplier<List<Object[]>> byDay = queries.submit(dailyPnlRepository::getProfitLossByDay);
+        Supplier<Long> total = queries.submit(tradeRepository::count);
+        Supplier<Long> closed = queries.submit(tradeRepository::countClosedTrades);
+        Supplier<Long> winning = queries.submit(tradeRepository::countWinningTrades);
+        Supplier<Long> losing = queries.submit(tradeRepository::countLosingTrades);
+        Supplier<BigDecimal> positionSize = queries.submit(tradeRepository::getTotalPositionSize);
+        Supplier<BigDecimal> profitLoss = queries.submit(tradeRepository::getTotalProfitLoss);
+        Supplier<BigDecimal> winningProfit = queries.submit(tradeRepository::getTotalWinningProfit);
+        Supplier<BigDecimal> losingLoss = queries.submit(tradeRepository::getTotalLosingLoss);
+
+        synchronized (this) {
+            totalTrades = total.get();
+            closedTrades = closed.get();
+            winningTrades = winning.get();
+            losingTrades = losing.get();
+            totalPositionSize = positionSize.get();
+            realizedPnL = profitLoss.get();
+            winningSum = winningProfit.get();
+            losingSum = losingLoss.get();
+
+            openTrades = 0;
+            openCurrentValue = BigDecimal.ZERO;
+            unrealizedPnL = BigDecimal.ZERO;
+            openPositions.clear();
+            marginByExchange.clear();
+            for (Trade trade : open.get()) {
+                addOpen(snapshot(trade).open());
+            }
+
+            realizedByDay.clear();
+            for (Object[] row : byDay.get()) {
+                realizedByDay.put(toLocalDate(row[0]), (BigDecimal) row[1]);
+            }
+        }
+    }
+
+    // A trade's current contribution
+    public TradeContribution snapshot(Trade trade) {
+        return trade != null ? contributionOf(TradeChangedEvent.State.of(trade)) : null;
+    }
+
+    // Record a created, updated or deleted trade once its transaction commits. Heard at publish time
+    // rather than through an after-commit listener so the commit can be held at the gate.
+    @EventListener
+    public void onTradeChanged(TradeChangedEvent event) {
+        TradeContribution before = event.before() != null ? contributionOf(event.before()) : null;
+        Trade after = event.deleted() ? null : event.trade();
+        // The entity is only final (P&L recalculated in @PreUpdate) once flushed,
+        // so read its state after commit
+        afterCommit(() -> applyChange(before, snapshot(after)));
+    }
+
+    // Record the trades of an import batch
+    @EventListener
+    public void onTradesAdded(TradesAddedEvent event) {
+        afterCommit(() -> event.trades().forEach(trade -> applyChange(null, snapshot(trade))));
+    }
+
+    // Revalue all open positions of a coin once a bulk price update commits
+    public void onPriceTick(String coin, BigDecimal price) {
+        afterCommit(() -> applyPriceTick(coin, price));
+    }
+
+    // Apply a change once the current transaction commits (now if there is none), inside the commit gate
+    private void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commitGate.enter();
+            try {
+                change.run();
+            } finally {
+                commitGate.leave();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean gated;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitGate.enter();
+                gated = true;
+            }
+
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (gated) {
+                    gated = false;
+                    commitGate.leave();
+                }
+            }
+        });
+    }
+
+    // Get the tracked open positions of a coin
+    public synchronized List<OpenPosition> getOpenPositions(String coin) {
+        Map<Long, OpenPosition> positions = openPositions.get(coin.toUpperCase());
+        return positions != null ? new ArrayList<>(positions.values()) : List.of();
+    }
+
+    // Get the open trade count and margin of an exchange
+    public synchronized ExchangeMargin getExchangeMargin(String exchange) {
+        return exchange != null ? marginByExchange.getOrDefault(exchange.toUpperCase(), ExchangeMargin.NONE)
+                : ExchangeMargin.NONE;
+    }
+
+    // Build the summary from the running totals
+    public synchronized TradeSummaryDTO getSummary() {
+        TradeSummaryDTO summary = new TradeSummaryDTO();
+
+        summary.setRealizedPnL(realizedPnL);
+        summary.setTotalProfitLoss(realizedPnL);
+        summary.setTotalInvested(totalPositionSize);
+        summary.setUnrealizedPnL(unrealizedPnL);
+        // Current portfolio = open position value + realized P&L from closed trades
+        summary.setCurrentPortfolioValue(openCurrentValue.add(realizedPnL));
+
+        summary.setTotalTrades(totalTrades);
+        summary.setOpenTrades(openTrades);
+        summary.setClosedTrades(closedTrades);
+        summary.setWinningTrades(winningTrades);
+        summary.setLosingTrades(losingTrades);
+
+        if (closedTrades > 0) {
+            summary.setWinRate(BigDecimal.valueOf(winningTrades)
+                    .divide(BigDecimal.valueOf(closedTrades), 4, RoundingMode.HALF_UP)
+                    .multiply(BigDecimal.valueOf(100)));
+        } else {
+            summary.setWinRate(BigDecimal.ZERO);
+        }
+
+        summary.setAverageProfit(average(winningSum, winningTrades));
+        summary.setAverageLoss(average(losingSum, losingTrades));
+
+        LocalDate today = LocalDate.now();
+        summary.setTodayProfitLoss(realizedBetween(today, today));
+        summary.setWeekProfitLoss(realizedBetween(today.minusDays(7), today));
+        summary.setMonthProfitLoss(realizedBetween(today.withDayOfMonth(1), today));
+
+        return summary;
+    }
+
+    private synchronized void applyChange(TradeContribution before, TradeContribution after) {
+        if (before != null) {
+            apply(before, -1);
+        }
+        if (after != null) {
+            apply(after, 1);
+        }
+    }
+
+    private synchronized void applyPriceTick(String coin, BigDecimal price) {
+        Map<Long, OpenPosition> positions = openPositions.get(coin.toUpperCase());
+        if (positions == null) {
+            return;
+        }
+        // Current value and unrealized P&L move by the same amount since position sizes are unchanged;
+        // accumulate the change in fixed point and touch the BigDecimal totals once
+        long priceUnscaled = PnlCalculator.toPriceUnscaled(price);
+        long fixedDelta = 0;
+        BigDecimal delta = BigDecimal.ZERO;
+        for (Map.Entry<Long, OpenPosition> entry : positions.entrySet()) {
+            OpenPosition old = entry.getValue();
+            OpenPosition revalued = old.withPrice(price, priceUnscaled);
+            entry.setValue(revalued);
+            if (old.valuation().isFixed() && revalued.valuation().isFixed()) {
+                try {
+                    fixedDelta = Math.addExact(fixedDelta, Math.subtractExact(
+                            revalued.valuation().profitLossUnscaled(), old.valuation().profitLossUnscaled()));
+                    continue;
+                } catch (ArithmeticException e) {
+                    // fall through to BigDecimal
+                }
+            }
+            delta = delta.add(revalued.unrealizedPnL().subtract(old.unrealizedPnL()));
+        }
+        delta = delta.add(BigDecimal.valueOf(fixedDelta, PnlCalculator.VALUE_SCALE));
+        openCurrentValue = openCurrentValue.add(delta);
+        unrealizedPnL = unrealizedPnL.add(delta);
+    }
+
+    private void apply(TradeContribution c, int sign) {
+        totalTrades += sign;
+        totalPositionSize = add(totalPositionSize, c.positionSize(), sign);
+
+        if (c.status() == TradeStatus.OPEN) {
+            if (sign > 0) {
+                addOpen(c.open());
+            } else {
+                removeOpen(c.open());
+            }
+            return;
+        }
+
+        closedTrades += sign;
+        BigDecimal pnl = c.profitLoss();
+        if (pnl == null) {
+            return;
+        }
+        realizedPnL = add(realizedPnL, pnl, sign);
+        if (pnl.signum() > 0) {
+            winningTrades += sign;
+            winningSum = add(winningSum, pnl, sign);
+        } else if (pnl.signum() < 0) {
+            losingTrades += sign;
+            losingSum = add(losingSum, pnl, sign);
+        }
+        if (c.closeDay() != null) {
+            BigDecimal day = add(realizedByDay.getOrDefault(c.closeDay(), BigDecimal.ZERO), pnl, sign);
+            realizedByDay.put(c.closeDay(), day);
+        }
+    }
+
+    private void addOpen(OpenPosition position) {
+        openTrades++;
+        openCurrentValue = openCurrentValue.add(position.currentValue());
+        unrealizedPnL = unrealizedPnL.add(position.unrealizedPnL());
+        updateMargin(position, 1);
+        if (position.tradeId() != null) {
+            openPositions.computeIfAbsent(position.coinKey(), k -> new HashMap<>())
+                    .put(position.tradeId(), position);
+        }
+    }
+
+    private void removeOpen(OpenPosition snapshot) {
+        // Prefer the tracked position: it reflects price ticks applied since the snapshot was taken
+        OpenPosition position = snapshot;
+        Map<Long, OpenPosition> positions = openPositions.get(snapshot.coinKey());
+        if (positions != null && snapshot.tradeId() != null) {
+            OpenPosition tracked = positions.remove(snapshot.tradeId());
+            if (tracked != null) {
+                position = tracked;
+            }
+            if (positions.isEmpty()) {
+                openPositions.remove(snapshot.coinKey());
+            }
+        }
+        openTrades--;
+        openCurrentValue = openCurrentValue.subtract(position.currentValue());
+        unrealizedPnL = unrealizedPnL.subtract(position.unrealizedPnL());
+        updateMargin(position, -1);
+    }
+
+    private void updateMargin(OpenPosition position, int sign) {
+        String exchangeKey = position.exchangeKey();
+        if (exchangeKey == null) {
+            return;
+        }
+        ExchangeMargin margin = marginByExchange.getOrDefault(exchangeKey, ExchangeMargin.NONE)
+                .plus(position.positionSize(), sign);
+        if (margin.openTrades() == 0) {
+            marginByExchange.remove(exchangeKey);
+        } else {
+            marginByExchange.put(exchangeKey, margin);
+        }
+    }
+
+    private BigDecimal realizedBetween(LocalDate from, LocalDate to) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal pnl : realizedByDay.subMap(from, true, to, true).values()) {
+            total = total.add(pnl);
+        }
+        return total;
+    }
+
+    // Amounts are scaled like their columns so running totals match what the database holds
+    private static TradeContribution contributionOf(TradeChangedEvent.State trade) {
+        BigDecimal positionSize = trade.positionSize() != null
+                ? trade.positionSize().setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        if (trade.status() != TradeStatus.OPEN) {
+            LocalDateTime closeDate = trade.closeDate();
+            BigDecimal profitLoss = trade.profitLoss() != null
+                    ? trade.profitLoss().setScale(2, RoundingMode.HALF_UP) : null;
+            return new TradeContribution(trade.status(), positionSize, profitLoss,
+                    closeDate != null ? closeDate.toLocalDate() : null, null);
+        }
+
+        OpenPosition open = OpenPosition.of(trade.id(), trade.coin(), trade.exchange(), trade.tradeType(),
+                trade.entryPrice(), trade.leverage() != null ? trade.leverage() : 1,
+                positionSize, trade.currentPrice());
+        return new TradeContribution(TradeStatus.OPEN, positionSize, null, null, open);
+    }
+
+    private static BigDecimal add(BigDecimal total, BigDecimal value, int sign) {
+        return sign > 0 ? total.add(value) : total.subtract(value);
+    }
+
+    private static BigDecimal average(BigDecimal sum, long count) {
+        if (count <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return sum.divide(BigDecimal.valueOf(count), 6, RoundingMode.HALF_UP);
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        return ((Date) value).toLocalDate();
+    }
+
+    // Lets commits through unless a rebuild holds it closed. A rebuild waits for a moment with no
+    // commit passing rather than turning new ones away while it waits: a commit already through may
+    // be waiting on a row lock of one still to come.
+    private static final class CommitGate {
+
+        private int passing;
+        private boolean closed;
+
+        synchronized void enter() {
+            while (closed) {
+                await();
+            }
+            passing++;
+        }
+
+        synchronized void leave() {
+            passing--;
+            notifyAll();
+        }
+
+        synchronized void close() {
+            while (closed || passing > 0) {
+                await();
+            }
+            closed = true;
+        }
+
+        synchronized void open() {
+            closed = false;
+            notifyAll();
+        }
+
+        private void await() {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted at the summary commit gate", e);
+            }
+        }
+    }
+
+    // A trade's share of the summary totals
+    public record TradeContribution(TradeStatus status, BigDecimal positionSize, BigDecimal profitLoss,
+                                    LocalDate closeDay, OpenPosition open) {
+    }
+
+    // Open trade count and position size (margin) held on an exchange
+    public record ExchangeMargin(long openTrades, BigDecimal usedMargin) {
+
+        static final ExchangeMargin NONE = new ExchangeMargin(0, BigDecimal.ZERO);
+
+        ExchangeMargin plus(BigDecimal positionSize, int sign) {
+            return new ExchangeMargin(openTrades + sign, add(usedMargin, positionSize, sign));
+        }
+    }
+
+    // An open trade valued at its current price
+    public record OpenPosition(Long tradeId, String coin, String exchange, TradeType tradeType,
+                               BigDecimal positionSize, BigDecimal currentPrice, PnlCalculator.Valuation valuation) {
+
+        // A missing current price values the position at its entry price
+        static OpenPosition of(Long tradeId, String coin, String exchange, TradeType tradeType, BigDecimal entryPrice,
+                               int leverage, BigDecimal positionSize, BigDecimal currentPrice) {
+            return new OpenPosition(tradeId, coin, exchange, tradeType, positionSize, currentPrice,
+                    PnlCalculator.Valuation.of(positionSize, entryPrice, currentPrice, leverage, tradeType));
+        }
+
+        public OpenPosition withPrice(BigDecimal price) {
+            return withPrice(price, PnlCalculator.toPriceUnscaled(price));
+        }
+
+        OpenPosition withPrice(BigDecimal price, long priceUnscaled) {
+            return new OpenPosition(tradeId, coin, exchange, tradeType, positionSize, price,
+                    valuation.at(price, priceUnscaled));
+        }
+
+        public BigDecimal currentValue() {
+            return valuation.currentValue();
+        }
+
+        public BigDecimal unrealizedPnL() {
+            return valuation.profitLoss();
+        }
+
+        String coinKey() {
+            return coin != null ? coin.toUpperCase() : "";
+        }
+
+        String exchangeKey() {
+            return exchange != null && !exchange.isEmpty() ? exchange.toUpperCase() : null;
+        }
+    }
+}
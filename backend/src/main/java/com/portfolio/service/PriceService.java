@@ -0,0 +1,178 @@
+package com.portfolio.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.portfolio.config.SchedulingConfig;
+import com.portfolio.dto.PriceQuoteDTO;
+import com.portfolio.dto.PriceTickDTO;
+import com.portfolio.repository.TradeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Live prices for the frontend and for marking open trades to market.
+ * <p>
+ * Every refresh interval the coins of all open trades are fetched from the {@link PriceSource}
+ * in one batched call, cached, and applied as price ticks. Requests to /api/prices are served
+ * from the cache (app.prices.ttl-ms); uncached symbols are fetched in one call, and requests
+ * that need a symbol already being fetched wait for that fetch instead of starting another.
+ */
+@Slf4j
+@Service
+public class PriceService {
+
+    private static final PriceQuoteDTO NO_QUOTE = new PriceQuoteDTO();
+
+    private final PriceSource priceSource;
+    private final TradeRepository tradeRepository;
+    private final PriceTickService priceTickService;
+    private final boolean applyTicks;
+    private final long fetchTimeoutMs;
+
+    // Quotes by symbol; NO_QUOTE marks symbols the source has no price for
+    private final Cache<String, PriceQuoteDTO> quotes;
+
+    // Fetches in progress by symbol, shared by every caller that needs the symbol meanwhile
+    private final ConcurrentMap<String, CompletableFuture<PriceQuoteDTO>> inFlight = new ConcurrentHashMap<>();
+
+    public PriceService(PriceSource priceSource,
+                        TradeRepository tradeRepository,
+                        PriceTickService priceTickService,
+                        @Value("${app.prices.ttl-ms:30000}") long ttlMs,
+                        @Value("${app.prices.apply-ticks:true}") boolean applyTicks,
+                        @Value("${app.prices.fetch-timeout-ms:10000}") long fetchTimeoutMs) {
+        this.priceSource = priceSource;
+        this.tradeRepository = tradeRepository;
+        this.priceTickService = priceTickService;
+        this.applyTicks = applyTicks;
+        this.fetchTimeoutMs = fetchTimeoutMs;
+        this.quotes = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(10_000)
+                .build();
+    }
+
+    // Quotes for the given symbols keyed by upper-case symbol; symbols without a price are left out
+    public Map<String, PriceQuoteDTO> getPrices(Collection<String> symbols) {
+        Map<String, PriceQuoteDTO> result = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String symbol : normalize(symbols)) {
+            PriceQuoteDTO quote = quotes.getIfPresent(symbol);
+            if (quote == NO_QUOTE) {
+                continue;
+            }
+            if (quote != null) {
+                result.put(symbol, quote);
+            } else {
+                missing.add(symbol);
+            }
+        }
+        if (!missing.isEmpty()) {
+            fetchShared(missing).forEach((symbol, future) -> {
+                PriceQuoteDTO quote = await(future);
+                if (quote != null) {
+                    result.put(symbol, quote);
+                }
+            });
+        }
+        return result;
+    }
+
+    // Fetch the coins of all open trades in one call and apply their prices as ticks
+    @Scheduled(fixedDelayString = "${app.prices.refresh-interval-ms:30000}", scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public void refreshOpenCoins() {
+        List<String> coins = tradeRepository.findOpenCoinKeys();
+        if (coins.isEmpty()) {
+            return;
+        }
+        List<PriceTickDTO> ticks = new ArrayList<>();
+        fetchShared(new LinkedHashSet<>(coins)).forEach((symbol, future) -> {
+            PriceQuoteDTO quote = await(future);
+            if (quote != null && quote.getPrice() != null) {
+                ticks.add(new PriceTickDTO(symbol, quote.getPrice()));
+            }
+        });
+        if (applyTicks && !ticks.isEmpty()) {
+            priceTickService.applyTicks(ticks);
+        }
+    }
+
+    // Join fetches already in progress and fetch the remaining symbols in one call on this thread
+    private Map<String, CompletableFuture<PriceQuoteDTO>> fetchShared(Set<String> symbols) {
+        Map<String, CompletableFuture<PriceQuoteDTO>> futures = new LinkedHashMap<>();
+        Map<String, CompletableFuture<PriceQuoteDTO>> owned = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            CompletableFuture<PriceQuoteDTO> future = new CompletableFuture<>();
+            CompletableFuture<PriceQuoteDTO> existing = inFlight.putIfAbsent(symbol, future);
+            if (existing != null) {
+                futures.put(symbol, existing);
+            } else {
+                futures.put(symbol, future);
+                owned.put(symbol, future);
+            }
+        }
+        if (!owned.isEmpty()) {
+            fetch(owned);
+        }
+        return futures;
+    }
+
+    private void fetch(Map<String, CompletableFuture<PriceQuoteDTO>> owned) {
+        Map<String, PriceQuoteDTO> fetched = null;
+        try {
+            fetched = priceSource.fetch(owned.keySet());
+        } catch (RuntimeException e) {
+            log.warn("Price fetch failed for {}: {}", owned.keySet(), e.getMessage());
+        } finally {
+            // Cache before leaving the in-flight map, so later callers find the quote in one of them
+            for (Map.Entry<String, CompletableFuture<PriceQuoteDTO>> entry : owned.entrySet()) {
+                PriceQuoteDTO quote = fetched != null ? fetched.get(entry.getKey()) : null;
+                if (fetched != null) {
+                    // Unknown symbols are not asked for again until the entry expires
+                    quotes.put(entry.getKey(), quote != null ? quote : NO_QUOTE);
+                }
+                entry.getValue().complete(quote);
+                inFlight.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    // A failed or timed out fetch counts as no price
+    private PriceQuoteDTO await(CompletableFuture<PriceQuoteDTO> future) {
+        try {
+            return future.get(fetchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static Set<String> normalize(Collection<String> symbols) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            if (symbol != null && !symbol.isBlank()) {
+                normalized.add(symbol.trim().toUpperCase());
+            }
+        }
+        return normalized;
+    }
+}
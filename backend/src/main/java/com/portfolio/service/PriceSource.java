@@ -0,0 +1,16 @@
+package com.portfolio.service;
+
+import com.portfolio.dto.PriceQuoteDTO;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Upstream market data used by {@link PriceService}. Implementations are selected with
+ * app.prices.source (coingecko, file); tests can register their own bean instead.
+ */
+public interface PriceSource {
+
+    // Quotes for the given upper-case symbols in one upstream call; unknown symbols are left out
+    Map<String, PriceQuoteDTO> fetch(Set<String> symbols);
+}
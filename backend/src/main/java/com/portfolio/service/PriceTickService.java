@@ -0,0 +1,71 @@
+package com.portfolio.service;
+
+import com.portfolio.dto.PriceTickDTO;
+import com.portfolio.event.PriceTickEvent;
+import com.portfolio.repository.TradeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class PriceTickService {
+
+    private final TradeRepository tradeRepository;
+    private final InvestmentService investmentService;
+    private final PortfolioSummaryAggregator summaryAggregator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Apply a batch of price ticks to all open trades and their investments
+    public Map<String, Object> applyTicks(List<PriceTickDTO> ticks) {
+        Map<String, BigDecimal> latestPrices = coalesce(ticks);
+        LocalDateTime now = LocalDateTime.now();
+
+        int tradesUpdated = 0;
+        int investmentsUpdated = 0;
+        for (Map.Entry<String, BigDecimal> tick : latestPrices.entrySet()) {
+            String coin = tick.getKey();
+            BigDecimal price = tick.getValue();
+
+            int updated = tradeRepository.updateCurrentPriceForOpenTrades(coin, price, now);
+            if (updated == 0) {
+                continue;
+            }
+            tradesUpdated += updated;
+
+            investmentsUpdated += investmentService.updateAllInvestmentsForCoin(coin, price);
+
+            summaryAggregator.onPriceTick(coin, price);
+            eventPublisher.publishEvent(new PriceTickEvent(coin, price));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("ticksReceived", ticks.size());
+        result.put("coinsApplied", latestPrices.size());
+        result.put("tradesUpdated", tradesUpdated);
+        result.put("investmentsUpdated", investmentsUpdated);
+        return result;
+    }
+
+    // Keep only the last valid price per coin, in arrival order
+    private Map<String, BigDecimal> coalesce(List<PriceTickDTO> ticks) {
+        Map<String, BigDecimal> latestPrices = new LinkedHashMap<>();
+        for (PriceTickDTO tick : ticks) {
+            if (tick == null || tick.getCoin() == null || tick.getCoin().isBlank()
+                    || tick.getPrice() == null || tick.getPrice().compareTo(BigDecimal.ZERO) <= 0) {
+                continue;
+            }
+            latestPrices.put(tick.getCoin().trim().toUpperCase(), tick.getPrice());
+        }
+        return latestPrices;
+    }
+}
@@ -0,0 +1,222 @@
+package com.portfolio.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.dto.DataFormat;
+import com.portfolio.dto.TradeImportResultDTO;
+import com.portfolio.event.TradesAddedEvent;
+import com.portfolio.event.TradesImportedEvent;
+import com.portfolio.model.Trade;
+import com.portfolio.util.CsvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports trades from a CSV or NDJSON stream without holding the file in memory.
+ * <p>
+ * Rows are parsed and validated one at a time; valid rows are inserted in JDBC batches of
+ * app.import.batch-size, each batch in its own transaction. Invalid rows are reported with
+ * their line number and skipped. If the database rejects a batch, its rows are retried one
+ * by one so only the offending rows fail.
+ */
+@Slf4j
+@Service
+public class TradeImportService {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public TradeImportService(EntityManager entityManager,
+                              TransactionTemplate transactionTemplate,
+                              Validator validator,
+                              ObjectMapper objectMapper,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${app.import.batch-size:1000}") int batchSize,
+                              @Value("${app.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    // Import trades; CSV needs a header row naming Trade fields (coin, tradeType, entryPrice, ...)
+    public TradeImportResultDTO importTrades(InputStream input, DataFormat format) throws IOException {
+        Batch batch = new Batch();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            if (format == DataFormat.CSV) {
+                readCsv(reader, batch);
+            } else {
+                readNdjson(reader, batch);
+            }
+        } finally {
+            batch.flush();
+            if (batch.result.getImported() > 0) {
+                eventPublisher.publishEvent(new TradesImportedEvent(batch.result.getImported()));
+            }
+        }
+        log.debug("Imported {} of {} trade rows", batch.result.getImported(), batch.result.getRowsRead());
+        return batch.result;
+    }
+
+    private void readCsv(BufferedReader reader, Batch batch) throws IOException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        List<String> columns = header.stream().map(String::trim).toList();
+
+        List<String> values;
+        while ((values = csv.next()) != null) {
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                continue;
+            }
+            int row = csv.getRecordLine();
+            if (values.size() > columns.size()) {
+                batch.reject(row, "Row has " + values.size() + " fields but the header has " + columns.size());
+                continue;
+            }
+            // Blank cells are treated as missing values
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                if (!values.get(i).isBlank()) {
+                    fields.put(columns.get(i), values.get(i).trim());
+                }
+            }
+            try {
+                batch.add(row, objectMapper.convertValue(fields, Trade.class));
+            } catch (IllegalArgumentException e) {
+                batch.reject(row, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, Batch batch) throws IOException {
+        String line;
+        int row = 0;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                batch.add(row, objectMapper.readValue(line, Trade.class));
+            } catch (JsonProcessingException e) {
+                batch.reject(row, e.getOriginalMessage());
+            }
+        }
+    }
+
+    // Insert the trades of one batch in a single transaction
+    private void persist(List<PendingTrade> trades) {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            for (PendingTrade pending : trades) {
+                entityManager.persist(pending.trade());
+            }
+            eventPublisher.publishEvent(new TradesAddedEvent(trades.stream().map(PendingTrade::trade).toList()));
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private record PendingTrade(int row, Trade trade) {
+    }
+
+    // Collects valid rows into batches and tracks the import result
+    private class Batch {
+
+        private final TradeImportResultDTO result = new TradeImportResultDTO();
+        private final List<PendingTrade> pending = new ArrayList<>(batchSize);
+
+        void add(int row, Trade trade) {
+            result.setRowsRead(result.getRowsRead() + 1);
+            // Imported rows are always new trades
+            trade.setId(null);
+            trade.setInvestments(null);
+            trade.setInvestedQuantity(null);
+            trade.setAverageEntryPrice(null);
+
+            Set<ConstraintViolation<Trade>> violations = validator.validate(trade);
+            if (!violations.isEmpty()) {
+                fail(row, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            pending.add(new PendingTrade(row, trade));
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(int row, String message) {
+            result.setRowsRead(result.getRowsRead() + 1);
+            fail(row, message);
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                persist(pending);
+                result.setImported(result.getImported() + pending.size());
+            } catch (DataAccessException | PersistenceException | TransactionException e) {
+                // Retry row by row to find the rows the database rejects
+                for (PendingTrade trade : pending) {
+                    // The rolled back attempt may have assigned an id
+                    trade.trade().setId(null);
+                    try {
+                        persist(List.of(trade));
+                        result.setImported(result.getImported() + 1);
+                    } catch (DataAccessException | PersistenceException | TransactionException rowError) {
+                        fail(trade.row(), NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                    }
+                }
+            }
+            pending.clear();
+        }
+
+        private void fail(int row, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new TradeImportResultDTO.RowError(row, message));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+    }
+}
@@ -1,54 +1,220 @@
 package com.portfolio.service;
 
+import com.portfolio.config.CacheConfig;
+import com.portfolio.config.ObservabilityConfig;
+import com.portfolio.dto.TradePageDTO;
+import com.portfolio.dto.TradeQueryDTO;
+import com.portfolio.dto.TradeReadModel;
 import com.portfolio.dto.TradeSummaryDTO;
+import com.portfolio.dto.TradeView;
+import com.portfolio.event.TradeChangedEvent;
 import com.portfolio.model.CloseReason;
-import com.portfolio.model.ExchangeWallet;
 import com.portfolio.model.Trade;
 import com.portfolio.model.TradeStatus;
 import com.portfolio.model.TradeType;
-import com.portfolio.repository.ExchangeWalletRepository;
+import com.portfolio.model.WalletLedgerType;
 import com.portfolio.repository.TradeRepository;
+import com.portfolio.repository.TradeSpecifications;
+import com.portfolio.util.PnlCalculator;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
+@Observed(name = ObservabilityConfig.SERVICE_OBSERVATION)
 @RequiredArgsConstructor
 @Transactional
 public class TradeService {
 
     private final TradeRepository tradeRepository;
-    private final ExchangeWalletRepository walletRepository;
+    private final WalletBalanceService walletBalanceService;
+    private final PortfolioSummaryAggregator summaryAggregator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+
+    private static final Set<String> PAGE_SORT_KEYS = Set.of("tradeDate", "coin", "leverage", "entryPrice");
+    private static final int MAX_PAGE_SIZE = 500;
 
     // Create a new trade
     public Trade createTrade(Trade trade) {
-        return tradeRepository.save(trade);
+        // Lot totals are maintained by InvestmentService
+        trade.setInvestedQuantity(null);
+        trade.setAverageEntryPrice(null);
+        Trade savedTrade = tradeRepository.save(trade);
+        eventPublisher.publishEvent(TradeChangedEvent.saved(null, savedTrade));
+        return savedTrade;
+    }
+
+    // Get all trades, as entities (Trade) or a read model
+    @Transactional(readOnly = true)
+    public <T> List<T> getAllTrades(Class<T> type) {
+        return tradeRepository.findAllBy(type);
     }
 
-    // Get all trades
+    // Get one page of trades matching the filters, ordered by (sort key, id)
     @Transactional(readOnly = true)
-    public List<Trade> getAllTrades() {
-        return tradeRepository.findAll();
+    public TradePageDTO getTradesPage(TradeQueryDTO query) {
+        String sortKey = query.getSort() != null ? query.getSort() : "tradeDate";
+        if (!PAGE_SORT_KEYS.contains(sortKey)) {
+            throw new IllegalArgumentException("Unsupported sort key: " + sortKey);
+        }
+        Sort.Direction direction = "asc".equalsIgnoreCase(query.getOrder()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, sortKey).and(Sort.by(direction, "id"));
+        int limit = Math.min(Math.max(query.getLimit() != null ? query.getLimit() : 50, 1), MAX_PAGE_SIZE);
+
+        Specification<Trade> spec = Specification.allOf(
+                TradeSpecifications.coinEquals(query.getCoin()),
+                TradeSpecifications.exchangeEquals(query.getExchange()),
+                TradeSpecifications.hasStatus(query.getStatus()),
+                TradeSpecifications.hasType(query.getType()),
+                TradeSpecifications.tradeDateFrom(query.getFrom() != null ? query.getFrom().atStartOfDay() : null),
+                TradeSpecifications.tradeDateTo(query.getTo() != null ? query.getTo().atTime(LocalTime.MAX) : null));
+
+        ScrollPosition position = decodeCursor(query.getCursor(), sortKey);
+        TradeView view = TradeView.fromName(query.getView());
+        if (view != TradeView.FULL) {
+            return getReadModelPage(spec, sortKey, direction, position, limit, view.getType());
+        }
+        Window<Trade> window = tradeRepository.findBy(spec, q -> q.sortBy(sort).limit(limit).scroll(position));
+
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            KeysetScrollPosition last = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+            nextCursor = encodeCursor(last.getKeys(), sortKey);
+        }
+        return new TradePageDTO(window.getContent(), nextCursor, window.hasNext());
+    }
+
+    // Same page as read model records, selected with a constructor expression and a keyset condition
+    // (sort key, id) after the cursor
+    private <T> TradePageDTO getReadModelPage(Specification<Trade> spec, String sortKey, Sort.Direction direction,
+                                              ScrollPosition position, int limit, Class<T> type) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> criteria = cb.createQuery(type);
+        Root<Trade> trade = criteria.from(Trade.class);
+        Selection<?>[] columns = Arrays.stream(type.getRecordComponents())
+                .map(component -> trade.get(component.getName()))
+                .toArray(Selection[]::new);
+        criteria.select(cb.construct(type, columns));
+
+        List<Predicate> where = new ArrayList<>();
+        Predicate filters = spec.toPredicate(trade, criteria, cb);
+        if (filters != null) {
+            where.add(filters);
+        }
+        if (position instanceof KeysetScrollPosition keyset && !keyset.isInitial()) {
+            where.add(after(cb, trade, sortKey, direction, keyset.getKeys()));
+        }
+        criteria.where(where.toArray(Predicate[]::new));
+        criteria.orderBy(direction.isAscending()
+                ? List.of(cb.asc(trade.get(sortKey)), cb.asc(trade.get("id")))
+                : List.of(cb.desc(trade.get(sortKey)), cb.desc(trade.get("id"))));
+
+        // One extra row tells whether there is a next page
+        List<T> rows = entityManager.createQuery(criteria).setMaxResults(limit + 1).getResultList();
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            TradeReadModel last = (TradeReadModel) items.get(items.size() - 1);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(sortKey, switch (sortKey) {
+                case "tradeDate" -> last.tradeDate();
+                case "leverage" -> last.leverage();
+                case "entryPrice" -> last.entryPrice();
+                default -> last.coin();
+            });
+            keys.put("id", last.id());
+            nextCursor = encodeCursor(keys, sortKey);
+        }
+        return new TradePageDTO(items, nextCursor, hasMore);
+    }
+
+    // (sort key, id) strictly after the cursor row in the page order
+    @SuppressWarnings("unchecked")
+    private static <V extends Comparable<? super V>> Predicate after(CriteriaBuilder cb, Root<Trade> trade, String sortKey,
+                                                                       Sort.Direction direction, Map<String, Object> keys) {
+        Expression<V> sortValue = trade.get(sortKey);
+        V cursorValue = (V) keys.get(sortKey);
+        Expression<Long> id = trade.get("id");
+        Long cursorId = (Long) keys.get("id");
+        return direction.isAscending()
+                ? cb.or(cb.greaterThan(sortValue, cursorValue),
+                        cb.and(cb.equal(sortValue, cursorValue), cb.greaterThan(id, cursorId)))
+                : cb.or(cb.lessThan(sortValue, cursorValue),
+                        cb.and(cb.equal(sortValue, cursorValue), cb.lessThan(id, cursorId)));
+    }
+
+    // Cursor = base64url("<sort key value>|<id>")
+    private static String encodeCursor(Map<String, ?> keys, String sortKey) {
+        String raw = keys.get(sortKey) + "|" + keys.get("id");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
-    // Get trade by ID
+    private static ScrollPosition decodeCursor(String cursor, String sortKey) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            String value = raw.substring(0, separator);
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put(sortKey, switch (sortKey) {
+                case "tradeDate" -> LocalDateTime.parse(value);
+                case "leverage" -> Integer.valueOf(value);
+                case "entryPrice" -> new BigDecimal(value);
+                default -> value;
+            });
+            keys.put("id", Long.valueOf(raw.substring(separator + 1)));
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    // Get trade by ID, as the entity (Trade) or a read model
     @Transactional(readOnly = true)
-    public Optional<Trade> getTradeById(Long id) {
-        return tradeRepository.findById(id);
+    public <T> Optional<T> getTradeById(Long id, Class<T> type) {
+        return tradeRepository.findTradeById(id, type);
     }
 
     // Update trade
     public Trade updateTrade(Long id, Trade tradeDetails) {
         Trade trade = tradeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Trade not found with id: " + id));
+        TradeChangedEvent.State before = TradeChangedEvent.State.of(trade);
 
         trade.setCoin(tradeDetails.getCoin());
         trade.setTradeType(tradeDetails.getTradeType());
@@ -56,7 +222,10 @@ public class TradeService {
         trade.setExitPrice(tradeDetails.getExitPrice());
         trade.setQuantity(tradeDetails.getQuantity());
         trade.setLeverage(tradeDetails.getLeverage());
-        trade.setPositionSize(tradeDetails.getPositionSize());
+        // With investment lots the position size is their running total
+        if (trade.getInvestedQuantity() == null) {
+            trade.setPositionSize(tradeDetails.getPositionSize());
+        }
         trade.setFees(tradeDetails.getFees());
         trade.setExchange(tradeDetails.getExchange());
         trade.setStatus(tradeDetails.getStatus());
@@ -70,20 +239,25 @@ public class TradeService {
         trade.setTradeDate(tradeDetails.getTradeDate());
         trade.setCloseDate(tradeDetails.getCloseDate());
 
-        return tradeRepository.save(trade);
+        Trade savedTrade = tradeRepository.save(trade);
+        eventPublisher.publishEvent(TradeChangedEvent.saved(before, savedTrade));
+        return savedTrade;
     }
 
     // Delete trade
     public void deleteTrade(Long id) {
         Trade trade = tradeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Trade not found with id: " + id));
+        TradeChangedEvent.State before = TradeChangedEvent.State.of(trade);
         tradeRepository.delete(trade);
+        eventPublisher.publishEvent(TradeChangedEvent.deleted(before, trade));
     }
 
     // Close a trade with reason
     public Trade closeTrade(Long id, BigDecimal exitPrice, CloseReason closeReason) {
         Trade trade = tradeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Trade not found with id: " + id));
+        TradeChangedEvent.State before = TradeChangedEvent.State.of(trade);
 
         trade.setExitPrice(exitPrice);
         trade.setStatus(TradeStatus.CLOSED);
@@ -104,6 +278,7 @@ public class TradeService {
 
         // Save the trade first to calculate P&L
         Trade savedTrade = tradeRepository.save(trade);
+        eventPublisher.publishEvent(TradeChangedEvent.saved(before, savedTrade));
         
         // Update wallet balance with realized P&L
         updateWalletBalance(savedTrade);
@@ -111,197 +286,68 @@ public class TradeService {
         return savedTrade;
     }
     
-    // Update the exchange wallet balance when a trade is closed
+    // Update the exchange wallet balance when a trade is closed (P&L and fees as separate ledger entries)
     private void updateWalletBalance(Trade trade) {
-        if (trade.getExchange() == null || trade.getExchange().isEmpty()) {
-            return; // No exchange specified, can't update wallet
-        }
-        
-        // Find the wallet for this exchange
-        Optional<ExchangeWallet> walletOpt = walletRepository.findByExchangeNameIgnoreCase(trade.getExchange());
-        if (walletOpt.isEmpty()) {
-            return; // No wallet for this exchange, skip
+        walletBalanceService.addToBalance(trade.getExchange(), WalletLedgerType.REALIZED_PNL,
+                calculateRealizedPnL(trade), trade.getId());
+        if (trade.getFees() != null) {
+            walletBalanceService.addToBalance(trade.getExchange(), WalletLedgerType.FEE,
+                    trade.getFees().negate().setScale(2, RoundingMode.HALF_UP), trade.getId());
         }
-        
-        ExchangeWallet wallet = walletOpt.get();
-        
-        // Calculate the realized P&L for this trade
-        BigDecimal realizedPnL = calculateRealizedPnL(trade);
-        
-        // Add the P&L to wallet balance (P&L can be positive or negative)
-        BigDecimal newBalance = wallet.getTotalBalance().add(realizedPnL);
-        wallet.setTotalBalance(newBalance);
-        
-        walletRepository.save(wallet);
     }
     
-    // Calculate realized P&L for a closed trade
+    // Calculate realized P&L for a closed trade, before fees
     private BigDecimal calculateRealizedPnL(Trade trade) {
         if (trade.getEntryPrice() == null || trade.getExitPrice() == null || 
             trade.getPositionSize() == null || trade.getLeverage() == null) {
             return BigDecimal.ZERO;
         }
         
-        BigDecimal entryPrice = trade.getEntryPrice();
-        BigDecimal exitPrice = trade.getExitPrice();
-        BigDecimal positionSize = trade.getPositionSize();
-        int leverage = trade.getLeverage();
-        
-        // Calculate price change percentage
-        BigDecimal priceChangePercent;
-        if (trade.getTradeType() == TradeType.LONG) {
-            // LONG: profit when price goes up
-            priceChangePercent = exitPrice.subtract(entryPrice)
-                    .divide(entryPrice, 8, RoundingMode.HALF_UP);
-        } else {
-            // SHORT: profit when price goes down
-            priceChangePercent = entryPrice.subtract(exitPrice)
-                    .divide(entryPrice, 8, RoundingMode.HALF_UP);
-        }
-        
-        // Apply leverage and calculate P&L
-        BigDecimal leveragedChange = priceChangePercent.multiply(BigDecimal.valueOf(leverage));
-        BigDecimal pnl = positionSize.multiply(leveragedChange);
-        
-        // Subtract fees if present
-        if (trade.getFees() != null) {
-            pnl = pnl.subtract(trade.getFees());
-        }
-        
-        return pnl.setScale(2, RoundingMode.HALF_UP);
+        return PnlCalculator.realizedPnl(trade.getPositionSize(), trade.getEntryPrice(), trade.getExitPrice(),
+                trade.getLeverage(), trade.getTradeType(), null);
     }
 
     // Get trades by coin
     @Transactional(readOnly = true)
-    public List<Trade> getTradesByCoin(String coin) {
-        return tradeRepository.findByCoinIgnoreCase(coin);
+    public <T> List<T> getTradesByCoin(String coin, Class<T> type) {
+        return tradeRepository.findByCoinKey(coin.toUpperCase(), type);
     }
 
     // Get trades by status
     @Transactional(readOnly = true)
-    public List<Trade> getTradesByStatus(TradeStatus status) {
-        return tradeRepository.findByStatus(status);
+    public <T> List<T> getTradesByStatus(TradeStatus status, Class<T> type) {
+        return tradeRepository.findByStatus(status, type);
     }
 
     // Get trades by type
     @Transactional(readOnly = true)
-    public List<Trade> getTradesByType(TradeType tradeType) {
-        return tradeRepository.findByTradeType(tradeType);
+    public <T> List<T> getTradesByType(TradeType tradeType, Class<T> type) {
+        return tradeRepository.findByTradeType(tradeType, type);
     }
 
     // Get trades by date range
     @Transactional(readOnly = true)
-    public List<Trade> getTradesByDateRange(LocalDate startDate, LocalDate endDate) {
+    public <T> List<T> getTradesByDateRange(LocalDate startDate, LocalDate endDate, Class<T> type) {
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
-        return tradeRepository.findByTradeDateBetween(start, end);
+        return tradeRepository.findByTradeDateBetween(start, end, type);
     }
 
-    // Get trade summary/statistics
-    @Transactional(readOnly = true)
+    // Get trade summary/statistics (maintained incrementally, no database access)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public TradeSummaryDTO getTradeSummary() {
-        TradeSummaryDTO summary = new TradeSummaryDTO();
-
-        // Total P&L (realized from closed trades)
-        BigDecimal realizedPnL = tradeRepository.getTotalProfitLoss();
-        summary.setRealizedPnL(realizedPnL != null ? realizedPnL : BigDecimal.ZERO);
-        summary.setTotalProfitLoss(realizedPnL);
-
-        // Portfolio tracking
-        BigDecimal totalInvested = tradeRepository.getTotalPositionSize();
-        BigDecimal openPositionSize = tradeRepository.getTotalOpenPositionSize();
-        summary.setTotalInvested(totalInvested != null ? totalInvested : BigDecimal.ZERO);
-        
-        // Calculate unrealized P&L and current portfolio value from open trades
-        List<Trade> openTrades = tradeRepository.findByStatus(TradeStatus.OPEN);
-        BigDecimal unrealizedPnL = BigDecimal.ZERO;
-        BigDecimal currentValue = BigDecimal.ZERO;
-        
-        for (Trade trade : openTrades) {
-            BigDecimal positionSize = trade.getPositionSize() != null ? trade.getPositionSize() : BigDecimal.ZERO;
-            BigDecimal entryPrice = trade.getEntryPrice();
-            BigDecimal currentPrice = trade.getCurrentPrice() != null ? trade.getCurrentPrice() : entryPrice;
-            Integer leverage = trade.getLeverage() != null ? trade.getLeverage() : 1;
-            
-            if (entryPrice != null && entryPrice.compareTo(BigDecimal.ZERO) > 0) {
-                // Calculate P&L based on trade type with leverage
-                // For LONG: profit when price goes up (currentPrice > entryPrice)
-                // For SHORT: profit when price goes down (currentPrice < entryPrice)
-                BigDecimal priceChangePercent;
-                if (trade.getTradeType() == TradeType.LONG) {
-                    priceChangePercent = currentPrice.subtract(entryPrice).divide(entryPrice, 8, java.math.RoundingMode.HALF_UP);
-                } else {
-                    // SHORT: profit when price drops
-                    priceChangePercent = entryPrice.subtract(currentPrice).divide(entryPrice, 8, java.math.RoundingMode.HALF_UP);
-                }
-                
-                // Apply leverage to the change
-                BigDecimal leveragedChange = priceChangePercent.multiply(BigDecimal.valueOf(leverage));
-                
-                // Current value = positionSize * (1 + leveragedChange)
-                BigDecimal tradeCurrentValue = positionSize.multiply(BigDecimal.ONE.add(leveragedChange));
-                currentValue = currentValue.add(tradeCurrentValue);
-                
-                // P&L = current value - position size
-                BigDecimal tradePnL = tradeCurrentValue.subtract(positionSize);
-                unrealizedPnL = unrealizedPnL.add(tradePnL);
-            } else {
-                currentValue = currentValue.add(positionSize);
-            }
-        }
-        
-        summary.setUnrealizedPnL(unrealizedPnL);
-        // Current portfolio = open position value + realized P&L from closed trades
-        summary.setCurrentPortfolioValue(currentValue.add(realizedPnL != null ? realizedPnL : BigDecimal.ZERO));
-
-        // Trade counts
-        Long totalClosed = tradeRepository.countClosedTrades();
-        Long winningTrades = tradeRepository.countWinningTrades();
-        Long losingTrades = tradeRepository.countLosingTrades();
-
-        summary.setTotalTrades(tradeRepository.count());
-        summary.setOpenTrades((long) openTrades.size());
-        summary.setClosedTrades(totalClosed);
-        summary.setWinningTrades(winningTrades);
-        summary.setLosingTrades(losingTrades);
-
-        // Win rate
-        if (totalClosed > 0) {
-            BigDecimal winRate = BigDecimal.valueOf(winningTrades)
-                    .divide(BigDecimal.valueOf(totalClosed), 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-            summary.setWinRate(winRate);
-        } else {
-            summary.setWinRate(BigDecimal.ZERO);
-        }
-
-        // Average profit/loss
-        summary.setAverageProfit(tradeRepository.getAverageProfit());
-        summary.setAverageLoss(tradeRepository.getAverageLoss());
-
-        // Today's P&L
-        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
-        LocalDateTime todayEnd = LocalDate.now().atTime(LocalTime.MAX);
-        summary.setTodayProfitLoss(tradeRepository.getTotalProfitLossBetweenDates(todayStart, todayEnd));
-
-        // This week's P&L
-        LocalDateTime weekStart = LocalDate.now().minusDays(7).atStartOfDay();
-        summary.setWeekProfitLoss(tradeRepository.getTotalProfitLossBetweenDates(weekStart, todayEnd));
-
-        // This month's P&L
-        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-        summary.setMonthProfitLoss(tradeRepository.getTotalProfitLossBetweenDates(monthStart, todayEnd));
-
-        return summary;
+        return summaryAggregator.getSummary();
     }
 
     // Get unique coins list
+    @Cacheable(CacheConfig.TRADE_COINS)
     @Transactional(readOnly = true)
     public List<String> getUniqueCoins() {
         return tradeRepository.findAllUniqueCoins();
     }
 
     // Get unique exchanges list
+    @Cacheable(CacheConfig.TRADE_EXCHANGES)
     @Transactional(readOnly = true)
     public List<String> getUniqueExchanges() {
         return tradeRepository.findAllUniqueExchanges();
@@ -0,0 +1,295 @@
+package com.portfolio.service;
+
+import com.portfolio.event.PriceTickEvent;
+import com.portfolio.event.TradeChangedEvent;
+import com.portfolio.event.TradesImportedEvent;
+import com.portfolio.model.CloseReason;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+import com.portfolio.repository.TradeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Closes open trades whose stop-loss, take-profit or liquidation level is crossed by a price tick.
+ * <p>
+ * The levels of open trades are kept in memory in sorted sets per coin, trade type and kind,
+ * so a tick finds the crossed levels with range queries (O(log n + k)) instead of scanning the
+ * open trades. The index follows committed trade changes and is rebuilt from the database on
+ * startup and after imports. Crossed trades are closed through TradeService.closeTrade at the
+ * level price, each in its own transaction.
+ */
+@Slf4j
+@Service
+public class TriggerEngine {
+
+    // When one tick crosses several levels of a trade, the first of these wins
+    private static final List<CloseReason> PRECEDENCE =
+            List.of(CloseReason.SL_HIT, CloseReason.LIQUIDATED, CloseReason.TP_HIT);
+
+    private final TradeRepository tradeRepository;
+    private final TradeService tradeService;
+    private final TransactionTemplate closeTransaction;
+    private final boolean enabled;
+
+    // Levels keyed by upper-case coin, then trade type
+    private final Map<String, EnumMap<TradeType, Levels>> levelsByCoin = new HashMap<>();
+
+    // Levels registered for each trade, so they can be removed when the trade changes
+    private final Map<Long, List<Level>> levelsByTrade = new HashMap<>();
+
+    public TriggerEngine(TradeRepository tradeRepository,
+                         TradeService tradeService,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.triggers.enabled:true}") boolean enabled) {
+        this.tradeRepository = tradeRepository;
+        this.tradeService = tradeService;
+        // Closes run after the tick's transaction has committed, so they need a transaction of their own
+        this.closeTransaction = new TransactionTemplate(transactionManager);
+        this.closeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+    }
+
+    // Load the levels of all open trades
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        List<Trade> open = tradeRepository.findByStatus(TradeStatus.OPEN);
+        synchronized (this) {
+            levelsByCoin.clear();
+            levelsByTrade.clear();
+            open.forEach(this::register);
+        }
+        log.debug("Trigger index rebuilt: {} levels of {} open trades", levelCount(), levelsByTrade.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeChanged(TradeChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Trade trade = event.trade();
+        synchronized (this) {
+            unregister(trade.getId());
+            if (!event.deleted() && trade.getStatus() == TradeStatus.OPEN) {
+                register(trade);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradesImported(TradesImportedEvent event) {
+        rebuild();
+    }
+
+    // Close the trades whose levels the new price has reached
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceTick(PriceTickEvent event) {
+        if (!enabled) {
+            return;
+        }
+        for (Level level : takeCrossed(event.coin().toUpperCase(), event.price())) {
+            close(level, event.price());
+        }
+    }
+
+    // Find the crossed levels and remove their trades from the index so they only fire once
+    private synchronized List<Level> takeCrossed(String coinKey, BigDecimal price) {
+        EnumMap<TradeType, Levels> byType = levelsByCoin.get(coinKey);
+        if (byType == null) {
+            return List.of();
+        }
+        List<Level> crossed = new ArrayList<>();
+        byType.forEach((tradeType, levels) -> levels.collectCrossed(tradeType, price, crossed));
+
+        Map<Long, Level> byTrade = new LinkedHashMap<>();
+        for (Level level : crossed) {
+            byTrade.merge(level.tradeId(), level, (a, b) ->
+                    PRECEDENCE.indexOf(a.reason()) <= PRECEDENCE.indexOf(b.reason()) ? a : b);
+        }
+        byTrade.keySet().forEach(this::unregister);
+        return new ArrayList<>(byTrade.values());
+    }
+
+    private void close(Level level, BigDecimal price) {
+        boolean closed = false;
+        try {
+            closed = Boolean.TRUE.equals(closeTransaction.execute(status -> {
+                // Skip trades closed or deleted since the index last saw them, and levels moved or
+                // cleared after the tick took them
+                Trade trade = tradeRepository.findById(level.tradeId()).orElse(null);
+                if (trade == null || trade.getStatus() != TradeStatus.OPEN
+                        || !level.isCurrent(trade) || !level.isCrossedBy(price)) {
+                    return false;
+                }
+                tradeService.closeTrade(level.tradeId(), level.price(), level.reason());
+                log.debug("Trade {} closed at {} ({})", level.tradeId(), level.price(), level.reason());
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Could not close trade {} at {} ({})", level.tradeId(), level.price(), level.reason(), e);
+        }
+        if (!closed) {
+            // takeCrossed removed the trade's levels; put back the ones it has now, or it is never watched again
+            reload(level.tradeId());
+        }
+    }
+
+    // Replace a trade's levels with those stored, dropping them if it is no longer open. The read runs
+    // under the index lock, so a change committed meanwhile is applied after it, not overwritten by it.
+    private synchronized void reload(Long tradeId) {
+        try {
+            Trade trade = tradeRepository.findById(tradeId).orElse(null);
+            unregister(tradeId);
+            if (trade != null && trade.getStatus() == TradeStatus.OPEN) {
+                register(trade);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not reload the levels of trade {}; they stay off until it changes", tradeId, e);
+        }
+    }
+
+    private void register(Trade trade) {
+        if (trade.getId() == null || trade.getCoin() == null || trade.getTradeType() == null) {
+            return;
+        }
+        List<Level> registered = new ArrayList<>(3);
+        addLevel(registered, trade, trade.getStopLoss(), CloseReason.SL_HIT);
+        addLevel(registered, trade, trade.getTakeProfit(), CloseReason.TP_HIT);
+        addLevel(registered, trade, trade.getLiquidationPrice(), CloseReason.LIQUIDATED);
+        if (registered.isEmpty()) {
+            return;
+        }
+        Levels levels = levelsByCoin.computeIfAbsent(trade.getCoin().toUpperCase(), coin -> new EnumMap<>(TradeType.class))
+                .computeIfAbsent(trade.getTradeType(), type -> new Levels());
+        registered.forEach(levels::add);
+        levelsByTrade.put(trade.getId(), registered);
+    }
+
+    private static void addLevel(List<Level> registered, Trade trade, BigDecimal price, CloseReason reason) {
+        if (price != null && price.signum() > 0) {
+            registered.add(new Level(price, trade.getId(), reason, trade.getCoin().toUpperCase(), trade.getTradeType()));
+        }
+    }
+
+    private void unregister(Long tradeId) {
+        List<Level> registered = levelsByTrade.remove(tradeId);
+        if (registered == null) {
+            return;
+        }
+        for (Level level : registered) {
+            EnumMap<TradeType, Levels> byType = levelsByCoin.get(level.coinKey());
+            Levels levels = byType.get(level.tradeType());
+            levels.remove(level);
+            if (levels.isEmpty()) {
+                byType.remove(level.tradeType());
+                if (byType.isEmpty()) {
+                    levelsByCoin.remove(level.coinKey());
+                }
+            }
+        }
+    }
+
+    private synchronized int levelCount() {
+        return levelsByTrade.values().stream().mapToInt(List::size).sum();
+    }
+
+    // A price level at which a trade is closed
+    private record Level(BigDecimal price, Long tradeId, CloseReason reason, String coinKey, TradeType tradeType) {
+
+        static final Comparator<Level> ORDER = Comparator.comparing(Level::price).thenComparing(Level::tradeId);
+
+        // Whether the trade still has this level (same coin and side, same price for this reason)
+        boolean isCurrent(Trade trade) {
+            BigDecimal current = switch (reason) {
+                case SL_HIT -> trade.getStopLoss();
+                case TP_HIT -> trade.getTakeProfit();
+                default -> trade.getLiquidationPrice();
+            };
+            return coinKey.equalsIgnoreCase(trade.getCoin()) && trade.getTradeType() == tradeType
+                    && current != null && current.compareTo(price) == 0;
+        }
+
+        // See Levels.collectCrossed
+        boolean isCrossedBy(BigDecimal tick) {
+            boolean fallsTo = (reason == CloseReason.TP_HIT) == (tradeType == TradeType.SHORT);
+            return fallsTo ? tick.compareTo(price) <= 0 : tick.compareTo(price) >= 0;
+        }
+
+        // Bound for range queries: sorts before (low) or after (high) every level at the same price
+        static Level probe(BigDecimal price, boolean high) {
+            return new Level(price, high ? Long.MAX_VALUE : Long.MIN_VALUE, null, null, null);
+        }
+    }
+
+    // Stop-loss, take-profit and liquidation levels of the open trades of one coin and trade type
+    private static class Levels {
+
+        private final NavigableSet<Level> stopLoss = new TreeSet<>(Level.ORDER);
+        private final NavigableSet<Level> takeProfit = new TreeSet<>(Level.ORDER);
+        private final NavigableSet<Level> liquidation = new TreeSet<>(Level.ORDER);
+
+        void add(Level level) {
+            setFor(level.reason()).add(level);
+        }
+
+        void remove(Level level) {
+            setFor(level.reason()).remove(level);
+        }
+
+        boolean isEmpty() {
+            return stopLoss.isEmpty() && takeProfit.isEmpty() && liquidation.isEmpty();
+        }
+
+        // LONG: stop-loss and liquidation fire when the price falls to them, take-profit when it rises to it.
+        // SHORT: the other way round.
+        void collectCrossed(TradeType tradeType, BigDecimal price, List<Level> out) {
+            if (tradeType == TradeType.LONG) {
+                out.addAll(atOrAbove(stopLoss, price));
+                out.addAll(atOrAbove(liquidation, price));
+                out.addAll(atOrBelow(takeProfit, price));
+            } else {
+                out.addAll(atOrBelow(stopLoss, price));
+                out.addAll(atOrBelow(liquidation, price));
+                out.addAll(atOrAbove(takeProfit, price));
+            }
+        }
+
+        private NavigableSet<Level> setFor(CloseReason reason) {
+            return switch (reason) {
+                case SL_HIT -> stopLoss;
+                case TP_HIT -> takeProfit;
+                default -> liquidation;
+            };
+        }
+
+        private static NavigableSet<Level> atOrAbove(NavigableSet<Level> levels, BigDecimal price) {
+            return levels.tailSet(Level.probe(price, false), true);
+        }
+
+        private static NavigableSet<Level> atOrBelow(NavigableSet<Level> levels, BigDecimal price) {
+            return levels.headSet(Level.probe(price, true), true);
+        }
+    }
+}
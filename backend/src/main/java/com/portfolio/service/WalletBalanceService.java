@@ -0,0 +1,159 @@
+package com.portfolio.service;
+
+import com.portfolio.event.WalletChangedEvent;
+import com.portfolio.model.ExchangeWallet;
+import com.portfolio.model.WalletLedgerEntry;
+import com.portfolio.model.WalletLedgerType;
+import com.portfolio.repository.ExchangeWalletRepository;
+import com.portfolio.repository.WalletLedgerRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Applies balance movements to wallets as in-database increments
+ * (total_balance = total_balance + delta), so concurrent closes on the same wallet never
+ * overwrite each other and no wallet row is read and written back. Every movement is also
+ * appended to the wallet ledger in the same transaction.
+ * <p>
+ * Within a transaction the deltas are merged per wallet and written just before commit: a bulk
+ * close issues one UPDATE per wallet, and the wallet row is only locked while committing.
+ * <p>
+ * Wallets are resolved by exchange name through the natural-id cache. An increment soft-locks
+ * only the cached copy of its wallet until the transaction completes, the way Hibernate does for
+ * an entity update, so the rest of the wallet cache survives trade closes.
+ */
+@Service
+@RequiredArgsConstructor
+public class WalletBalanceService {
+
+    private final ExchangeWalletRepository walletRepository;
+    private final WalletLedgerRepository ledgerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+
+    // Add an amount (positive or negative) to the balance of the exchange's wallet, if there is one
+    public void addToBalance(String exchange, WalletLedgerType type, BigDecimal amount, Long tradeId) {
+        if (exchange == null || exchange.isEmpty() || amount == null || amount.signum() == 0) {
+            return;
+        }
+        findWalletId(exchange)
+                .ifPresent(walletId -> addToBalance(walletId, type, amount, tradeId, null));
+    }
+
+    // Add an amount (positive or negative) to a wallet's balance
+    public void addToBalance(Long walletId, WalletLedgerType type, BigDecimal amount, Long tradeId, String note) {
+        if (amount == null || amount.signum() == 0) {
+            return;
+        }
+        PendingChanges pending = pendingChanges();
+        if (pending == null) {
+            LocalDateTime now = LocalDateTime.now();
+            incrementBalance(walletId, amount, now);
+            ledgerRepository.save(entry(walletId, type, amount, tradeId, note, now));
+            eventPublisher.publishEvent(new WalletChangedEvent(walletId));
+            return;
+        }
+        if (!pending.deltas.containsKey(walletId)) {
+            eventPublisher.publishEvent(new WalletChangedEvent(walletId));
+        }
+        pending.deltas.merge(walletId, amount, BigDecimal::add);
+        pending.entries.add(entry(walletId, type, amount, tradeId, note, null));
+    }
+
+    // Record a balance change the caller has already written to the wallet row (creation, manual edit)
+    public void recordEntry(Long walletId, WalletLedgerType type, BigDecimal amount, String note) {
+        if (amount == null || amount.signum() == 0) {
+            return;
+        }
+        PendingChanges pending = pendingChanges();
+        if (pending == null) {
+            ledgerRepository.save(entry(walletId, type, amount, null, note, LocalDateTime.now()));
+        } else {
+            pending.entries.add(entry(walletId, type, amount, null, note, null));
+        }
+    }
+
+    // Id of the exchange's wallet by natural id (upper-cased name), without loading the wallet
+    private Optional<Long> findWalletId(String exchange) {
+        return Optional.ofNullable(entityManager.unwrap(Session.class)
+                        .bySimpleNaturalId(ExchangeWallet.class)
+                        .getReference(ExchangeWallet.keyOf(exchange)))
+                .map(ExchangeWallet::getId);
+    }
+
+    // Soft-lock the wallet's cached copy until the transaction completes, then increment the row
+    private void incrementBalance(Long walletId, BigDecimal delta, LocalDateTime now) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(ExchangeWallet.class);
+        if (persister.canWriteToCache()) {
+            EntityDataAccess cache = persister.getCacheAccessStrategy();
+            Object key = cache.generateCacheKey(walletId, persister, session.getFactory(), session.getTenantIdentifier());
+            SoftLock lock = cache.lockItem(session, key, null);
+            session.getActionQueue().registerProcess(
+                    (success, completedSession) -> cache.unlockItem(completedSession, key, lock));
+        }
+        walletRepository.addToBalance(walletId, delta, now);
+    }
+
+    // Changes collected by the current transaction, or null outside a transaction
+    private PendingChanges pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private static WalletLedgerEntry entry(Long walletId, WalletLedgerType type, BigDecimal amount, Long tradeId,
+                                           String note, LocalDateTime createdAt) {
+        return new WalletLedgerEntry(null, walletId, type, amount, tradeId, note, createdAt);
+    }
+
+    // Balance changes and ledger entries of one transaction; deltas are keyed by wallet id
+    // (ordered, so wallet rows are locked in id order)
+    private class PendingChanges implements TransactionSynchronization {
+
+        private final Map<Long, BigDecimal> deltas = new TreeMap<>();
+        private final List<WalletLedgerEntry> entries = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Entries are stamped with the commit time so snapshots see them in commit order
+            LocalDateTime now = LocalDateTime.now();
+            deltas.forEach((walletId, delta) -> {
+                if (delta.signum() != 0) {
+                    incrementBalance(walletId, delta, now);
+                }
+            });
+            entries.forEach(entry -> entry.setCreatedAt(now));
+            ledgerRepository.saveAll(entries);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(WalletBalanceService.this);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.portfolio.service;
+
+import com.portfolio.config.SchedulingConfig;
+import com.portfolio.dto.WalletBalanceDTO;
+import com.portfolio.dto.WalletLedgerCheckDTO;
+import com.portfolio.model.ExchangeWallet;
+import com.portfolio.model.WalletBalanceSnapshot;
+import com.portfolio.model.WalletLedgerEntry;
+import com.portfolio.model.WalletLedgerType;
+import com.portfolio.repository.ExchangeWalletRepository;
+import com.portfolio.repository.WalletBalanceSnapshotRepository;
+import com.portfolio.repository.WalletLedgerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Answers balance history questions from the append-only wallet ledger.
+ * <p>
+ * The balance of a wallet at a given time is its latest snapshot taken as of that time plus
+ * the ledger entries created after the snapshot, so the work is bounded by the snapshot
+ * interval instead of the wallet's history. Snapshots are taken on a schedule, lagging the
+ * clock by app.wallet-ledger.snapshot-lag so entries of transactions still committing are
+ * never left behind a snapshot.
+ */
+@Slf4j
+@Service
+@Transactional
+public class WalletLedgerService {
+
+    // Open-ended ranges, within what a MySQL datetime can hold
+    private static final LocalDateTime EARLIEST = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 30, 0, 0);
+
+    private final ExchangeWalletRepository walletRepository;
+    private final WalletLedgerRepository ledgerRepository;
+    private final WalletBalanceSnapshotRepository snapshotRepository;
+    private final WalletBalanceService walletBalanceService;
+    private final Duration snapshotLag;
+
+    public WalletLedgerService(ExchangeWalletRepository walletRepository,
+                               WalletLedgerRepository ledgerRepository,
+                               WalletBalanceSnapshotRepository snapshotRepository,
+                               WalletBalanceService walletBalanceService,
+                               @Value("${app.wallet-ledger.snapshot-lag:PT1M}") Duration snapshotLag) {
+        this.walletRepository = walletRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.walletBalanceService = walletBalanceService;
+        this.snapshotLag = snapshotLag;
+    }
+
+    // Record a deposit (positive), withdrawal (negative), fee (negative) or adjustment; trade P&L is recorded on close
+    public void addEntry(Long walletId, WalletLedgerEntry request) {
+        requireWallet(walletId);
+        BigDecimal amount = request.getAmount().setScale(2, RoundingMode.HALF_UP);
+        boolean valid = switch (request.getEntryType()) {
+            case DEPOSIT -> amount.signum() > 0;
+            case WITHDRAWAL, FEE -> amount.signum() < 0;
+            case ADJUSTMENT -> amount.signum() != 0;
+            case REALIZED_PNL -> false;
+        };
+        if (!valid) {
+            throw new IllegalArgumentException("Invalid amount " + amount + " for a " + request.getEntryType() + " entry");
+        }
+        walletBalanceService.addToBalance(walletId, request.getEntryType(), amount, null, request.getNote());
+    }
+
+    // A wallet's ledger entries in [from, to), newest first
+    @Transactional(readOnly = true)
+    public List<WalletLedgerEntry> getEntries(Long walletId, LocalDateTime from, LocalDateTime to, int limit) {
+        requireWallet(walletId);
+        return ledgerRepository.findEntries(walletId, from != null ? from : EARLIEST, to != null ? to : LATEST,
+                PageRequest.of(0, limit));
+    }
+
+    // A wallet's balance at a point in time
+    @Transactional(readOnly = true)
+    public WalletBalanceDTO getBalanceAt(Long walletId, LocalDateTime at) {
+        requireWallet(walletId);
+        Derived derived = derive(walletId, at);
+        return new WalletBalanceDTO(walletId, at, derived.balance(), derived.snapshotAsOf(), derived.tailEntries());
+    }
+
+    // Compare the stored balance with the one derived from the ledger
+    @Transactional(readOnly = true)
+    public WalletLedgerCheckDTO verify(Long walletId) {
+        ExchangeWallet wallet = walletRepository.findById(walletId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found with id: " + walletId));
+        Derived derived = derive(walletId, LATEST);
+        BigDecimal difference = wallet.getTotalBalance().subtract(derived.balance());
+        return new WalletLedgerCheckDTO(walletId, wallet.getTotalBalance(), derived.balance(), difference,
+                difference.signum() == 0, derived.snapshotAsOf(), derived.tailEntries());
+    }
+
+    // Snapshot every wallet whose ledger moved since its last snapshot
+    @Scheduled(cron = "${app.wallet-ledger.snapshot-cron:0 0 * * * *}", scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public int takeSnapshots() {
+        LocalDateTime asOf = LocalDateTime.now().minus(snapshotLag);
+        int taken = 0;
+        for (ExchangeWallet wallet : walletRepository.findAll()) {
+            Derived derived = derive(wallet.getId(), asOf);
+            if (derived.tailEntries() > 0) {
+                snapshotRepository.save(new WalletBalanceSnapshot(null, wallet.getId(), asOf, derived.balance()));
+                taken++;
+            }
+        }
+        log.debug("Wallet balance snapshots taken as of {}: {}", asOf, taken);
+        return taken;
+    }
+
+    // Nearest snapshot at or before `at` plus the entries after it
+    private Derived derive(Long walletId, LocalDateTime at) {
+        WalletBalanceSnapshot snapshot = snapshotRepository
+                .findFirstByWalletIdAndAsOfLessThanEqualOrderByAsOfDesc(walletId, at)
+                .orElse(null);
+        LocalDateTime after = snapshot != null ? snapshot.getAsOf() : EARLIEST;
+        Object[] tail = ledgerRepository.sumBetween(walletId, after, at).get(0);
+        BigDecimal balance = (BigDecimal) tail[0];
+        if (snapshot != null) {
+            balance = balance.add(snapshot.getBalance());
+        }
+        return new Derived(balance.setScale(2, RoundingMode.HALF_UP), snapshot != null ? snapshot.getAsOf() : null,
+                ((Number) tail[1]).longValue());
+    }
+
+    private void requireWallet(Long walletId) {
+        if (!walletRepository.existsById(walletId)) {
+            throw new RuntimeException("Wallet not found with id: " + walletId);
+        }
+    }
+
+    private record Derived(BigDecimal balance, LocalDateTime snapshotAsOf, long tailEntries) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.portfolio.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, fields optionally wrapped in double quotes,
+ * "" for a quote inside a quoted field, and line breaks allowed inside quoted fields (read as \n).
+ */
+public class CsvReader {
+
+    private static final int NONE = -2;
+
+    private final Reader reader;
+    private int line = 1;
+    private int recordLine;
+    private int pushback = NONE;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Next record, or null at end of input
+    public List<String> next() throws IOException {
+        recordLine = line;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    // Line number on which the last record returned by next() started
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    // Next character with \r\n and lone \r line breaks read as \n
+    private int read() throws IOException {
+        int c;
+        if (pushback != NONE) {
+            c = pushback;
+            pushback = NONE;
+        } else {
+            c = reader.read();
+        }
+        if (c == '\r') {
+            int next = reader.read();
+            if (next != '\n') {
+                pushback = next;
+            }
+            c = '\n';
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+}
@@ -0,0 +1,212 @@
+package com.portfolio.util;
+
+import com.portfolio.dto.EquityCurveDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Single-pass equity curve and trade statistics over realized P&L in close date order.
+ * <p>
+ * Memory does not depend on the number of trades: the curve keeps at most maxPoints samples.
+ * A sample is taken every stride trades; when the samples are full, every other one is dropped
+ * and the stride doubles, so the points stay evenly spaced by trade count. Amounts are summed
+ * as unscaled longs at AMOUNT_SCALE.
+ */
+public final class EquityCurveAccumulator {
+
+    private static final double DAYS_PER_YEAR = 365;
+
+    private final long initialEquity;
+    private long equity;
+    private long peak;
+
+    private long trades;
+    private long winningTrades;
+    private long losingTrades;
+    private long grossProfit;
+    private long grossLoss;
+
+    private long maxDrawdown;
+    private long peakAtMaxDrawdown;
+    private LocalDateTime maxDrawdownDate;
+
+    private long winningStreak;
+    private long losingStreak;
+    private long longestWinningStreak;
+    private long longestLosingStreak;
+
+    // Daily P&L for the Sharpe-like ratio (Welford's running mean and variance)
+    private LocalDate day;
+    private long dayProfitLoss;
+    private long days;
+    private double dailyMean;
+    private double dailyM2;
+
+    // Sampled curve points
+    private final LocalDateTime[] pointDates;
+    private final long[] pointTrades;
+    private final long[] pointEquity;
+    private final long[] pointDrawdown;
+    private int points;
+    private long stride = 1;
+    private LocalDateTime lastDate;
+
+    public EquityCurveAccumulator(int maxPoints, BigDecimal initialEquity) {
+        if (maxPoints < 2) {
+            throw new IllegalArgumentException("maxPoints must be at least 2");
+        }
+        this.initialEquity = toUnscaled(initialEquity);
+        this.equity = this.initialEquity;
+        this.peak = this.initialEquity;
+        this.pointDates = new LocalDateTime[maxPoints];
+        this.pointTrades = new long[maxPoints];
+        this.pointEquity = new long[maxPoints];
+        this.pointDrawdown = new long[maxPoints];
+    }
+
+    // Add the next closed trade; calls must be in close date order
+    public void add(LocalDateTime closeDate, BigDecimal profitLoss) {
+        long pnl = toUnscaled(profitLoss);
+        trades++;
+        equity = Math.addExact(equity, pnl);
+
+        if (pnl > 0) {
+            winningTrades++;
+            grossProfit = Math.addExact(grossProfit, pnl);
+            losingStreak = 0;
+            longestWinningStreak = Math.max(longestWinningStreak, ++winningStreak);
+        } else if (pnl < 0) {
+            losingTrades++;
+            grossLoss = Math.subtractExact(grossLoss, pnl);
+            winningStreak = 0;
+            longestLosingStreak = Math.max(longestLosingStreak, ++losingStreak);
+        }
+
+        peak = Math.max(peak, equity);
+        long drawdown = peak - equity;
+        if (drawdown > maxDrawdown) {
+            maxDrawdown = drawdown;
+            peakAtMaxDrawdown = peak;
+            maxDrawdownDate = closeDate;
+        }
+
+        LocalDate closeDay = closeDate.toLocalDate();
+        if (!closeDay.equals(day)) {
+            closeDay();
+            day = closeDay;
+        }
+        dayProfitLoss += pnl;
+
+        lastDate = closeDate;
+        if (trades % stride == 0) {
+            if (points == pointEquity.length) {
+                halvePoints();
+            }
+            if (trades % stride == 0) {
+                addPoint(closeDate, drawdown);
+            }
+        }
+    }
+
+    public EquityCurveDTO result() {
+        closeDay();
+        day = null;
+
+        EquityCurveDTO dto = new EquityCurveDTO();
+        dto.setInitialEquity(toAmount(initialEquity));
+        dto.setFinalEquity(toAmount(equity));
+        dto.setTrades(trades);
+        dto.setWinningTrades(winningTrades);
+        dto.setLosingTrades(losingTrades);
+        dto.setGrossProfit(toAmount(grossProfit));
+        dto.setGrossLoss(toAmount(grossLoss));
+        dto.setProfitFactor(grossLoss > 0
+                ? BigDecimal.valueOf(grossProfit).divide(BigDecimal.valueOf(grossLoss), 4, RoundingMode.HALF_UP)
+                : null);
+        dto.setMaxDrawdown(toAmount(maxDrawdown));
+        dto.setMaxDrawdownPercent(maxDrawdown > 0 && peakAtMaxDrawdown > 0
+                ? BigDecimal.valueOf(maxDrawdown * 100).divide(BigDecimal.valueOf(peakAtMaxDrawdown), 2, RoundingMode.HALF_UP)
+                : null);
+        dto.setMaxDrawdownDate(maxDrawdownDate);
+        dto.setLongestWinningStreak(longestWinningStreak);
+        dto.setLongestLosingStreak(longestLosingStreak);
+        dto.setTradingDays(days);
+        dto.setSharpeRatio(sharpeRatio());
+
+        for (int i = 0; i < points; i++) {
+            dto.getPoints().add(new EquityCurveDTO.Point(pointDates[i], pointTrades[i],
+                    toAmount(pointEquity[i]), toAmount(pointDrawdown[i])));
+        }
+        // Always end on the last trade
+        if (trades > 0 && (points == 0 || pointTrades[points - 1] != trades)) {
+            EquityCurveDTO.Point last = new EquityCurveDTO.Point(lastDate, trades, toAmount(equity), toAmount(peak - equity));
+            if (points == pointEquity.length) {
+                dto.getPoints().set(points - 1, last);
+            } else {
+                dto.getPoints().add(last);
+            }
+        }
+        return dto;
+    }
+
+    private void addPoint(LocalDateTime date, long drawdown) {
+        pointDates[points] = date;
+        pointTrades[points] = trades;
+        pointEquity[points] = equity;
+        pointDrawdown[points] = drawdown;
+        points++;
+    }
+
+    // Keep the samples at multiples of twice the stride (odd indices) and double the stride
+    private void halvePoints() {
+        int kept = 0;
+        for (int i = 1; i < points; i += 2) {
+            pointDates[kept] = pointDates[i];
+            pointTrades[kept] = pointTrades[i];
+            pointEquity[kept] = pointEquity[i];
+            pointDrawdown[kept] = pointDrawdown[i];
+            kept++;
+        }
+        for (int i = kept; i < points; i++) {
+            pointDates[i] = null;
+        }
+        points = kept;
+        stride *= 2;
+    }
+
+    private void closeDay() {
+        if (day == null) {
+            return;
+        }
+        days++;
+        double delta = dayProfitLoss - dailyMean;
+        dailyMean += delta / days;
+        dailyM2 += delta * (dayProfitLoss - dailyMean);
+        dayProfitLoss = 0;
+    }
+
+    private BigDecimal sharpeRatio() {
+        if (days < 2) {
+            return null;
+        }
+        double stdDev = Math.sqrt(dailyM2 / (days - 1));
+        if (stdDev == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(dailyMean / stdDev * Math.sqrt(DAYS_PER_YEAR)).setScale(4, RoundingMode.HALF_UP);
+    }
+
+    private static long toUnscaled(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.setScale(PnlCalculator.AMOUNT_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static BigDecimal toAmount(long unscaled) {
+        return BigDecimal.valueOf(unscaled, PnlCalculator.AMOUNT_SCALE);
+    }
+}
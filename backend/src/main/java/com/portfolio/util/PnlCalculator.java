@@ -0,0 +1,341 @@
+package com.portfolio.util;
+
+import com.portfolio.model.TradeType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Leveraged P&L math shared by trades, investments, wallet updates and the portfolio summary.
+ * <p>
+ * Values are handled as unscaled longs at the column scales (8 for prices and quantities,
+ * 2 for amounts) and give exactly the same results as the equivalent BigDecimal expressions.
+ * Products that are divided again (price change ratios, P&L percentages) are taken at 128 bits
+ * with {@link Math#multiplyHigh}, and overflow is checked by branching rather than by catching
+ * ArithmeticException. Only when a value has more decimals than its column or a result does not
+ * fit a long does the calculation fall back to BigDecimal.
+ */
+public final class PnlCalculator {
+
+    public static final int PRICE_SCALE = 8;
+    public static final int AMOUNT_SCALE = 2;
+    // Scale of an amount multiplied by a price change ratio
+    public static final int VALUE_SCALE = AMOUNT_SCALE + PRICE_SCALE;
+
+    // Marker for a value that cannot be represented at its scale, or a result that does not fit a long
+    public static final long NOT_FIXED = Long.MIN_VALUE;
+
+    private static final long PRICE_ONE = 100_000_000L;
+    // Unscaled values of up to 18 digits always fit a long
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L,
+            10_000_000_000_000L, 100_000_000_000_000L, 1_000_000_000_000_000L
+    };
+    private static final long LOW_32_BITS = 0xFFFF_FFFFL;
+
+    private PnlCalculator() {
+    }
+
+    // Unscaled price at PRICE_SCALE, or NOT_FIXED
+    public static long toPriceUnscaled(BigDecimal price) {
+        return price != null ? unscaledOrNotFixed(price, PRICE_SCALE) : NOT_FIXED;
+    }
+
+    // Realized P&L of a closed position: positionSize * leveraged change - fees, rounded to AMOUNT_SCALE
+    public static BigDecimal realizedPnl(BigDecimal positionSize, BigDecimal entryPrice, BigDecimal exitPrice,
+                                         int leverage, TradeType tradeType, BigDecimal fees) {
+        Valuation valuation = Valuation.of(positionSize, entryPrice, exitPrice, leverage, tradeType);
+        if (valuation.isFixed()) {
+            long pnl = valuation.profitLossUnscaled();
+            if (fees != null) {
+                pnl = subtractOrNotFixed(pnl, multiplyOrNotFixed(unscaledOrNotFixed(fees, AMOUNT_SCALE), PRICE_ONE));
+            }
+            if (pnl != NOT_FIXED) {
+                return BigDecimal.valueOf(divideHalfUp(pnl, PRICE_ONE), AMOUNT_SCALE);
+            }
+        }
+        BigDecimal pnl = valuation.profitLoss();
+        if (fees != null) {
+            pnl = pnl.subtract(fees);
+        }
+        return pnl.setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    // Position size, P&L and P&L percentage of a trade closed at exitPrice
+    public static CloseOut closeOut(BigDecimal entryPrice, BigDecimal exitPrice, BigDecimal quantity,
+                                    int leverage, TradeType tradeType, BigDecimal fees) {
+        long entry = unscaledOrNotFixed(entryPrice, PRICE_SCALE);
+        long exit = unscaledOrNotFixed(exitPrice, PRICE_SCALE);
+        long qty = unscaledOrNotFixed(quantity, PRICE_SCALE);
+        long feesUnscaled = fees != null ? unscaledOrNotFixed(fees, AMOUNT_SCALE) : 0;
+        if (entry == NOT_FIXED || exit == NOT_FIXED || qty == NOT_FIXED || feesUnscaled == NOT_FIXED) {
+            return closeOutExact(entryPrice, exitPrice, quantity, leverage, tradeType, fees);
+        }
+
+        // Drop the trailing zero decimals the prices share, and those of the quantity, so that
+        // position sizes of usual prices and quantities fit a long. Each keeps at least one decimal
+        // so the result scale can hold the fees (AMOUNT_SCALE).
+        int priceScale = PRICE_SCALE;
+        while (priceScale > 1 && entry % 10 == 0 && exit % 10 == 0) {
+            entry /= 10;
+            exit /= 10;
+            priceScale--;
+        }
+        int quantityScale = PRICE_SCALE;
+        while (quantityScale > 1 && qty % 10 == 0) {
+            qty /= 10;
+            quantityScale--;
+        }
+        int scale = priceScale + quantityScale;
+
+        long diff = tradeType == TradeType.LONG ? subtractOrNotFixed(exit, entry) : subtractOrNotFixed(entry, exit);
+        long positionSize = multiplyOrNotFixed(entry, qty);
+        long pnl = multiplyOrNotFixed(multiplyOrNotFixed(diff, qty), leverage);
+        if (fees != null) {
+            pnl = subtractOrNotFixed(pnl, multiplyOrNotFixed(feesUnscaled, POWERS_OF_TEN[scale - AMOUNT_SCALE]));
+        }
+        if (positionSize == NOT_FIXED || pnl == NOT_FIXED) {
+            return closeOutExact(entryPrice, exitPrice, quantity, leverage, tradeType, fees);
+        }
+        BigDecimal percentage = null;
+        if (positionSize > 0) {
+            long ratio = multiplyOrNotFixed(multiplyDivideHalfUp(pnl, 100L, positionSize), 100L);
+            if (ratio == NOT_FIXED) {
+                return closeOutExact(entryPrice, exitPrice, quantity, leverage, tradeType, fees);
+            }
+            percentage = BigDecimal.valueOf(ratio, 2);
+        }
+        return new CloseOut(BigDecimal.valueOf(positionSize, scale), BigDecimal.valueOf(pnl, scale), percentage);
+    }
+
+    private static CloseOut closeOutExact(BigDecimal entryPrice, BigDecimal exitPrice, BigDecimal quantity,
+                                          int leverage, TradeType tradeType, BigDecimal fees) {
+        BigDecimal priceDiff = tradeType == TradeType.LONG
+                ? exitPrice.subtract(entryPrice) : entryPrice.subtract(exitPrice);
+        BigDecimal positionSize = entryPrice.multiply(quantity);
+        BigDecimal pnl = priceDiff.multiply(quantity).multiply(BigDecimal.valueOf(leverage));
+        if (fees != null) {
+            pnl = pnl.subtract(fees);
+        }
+        BigDecimal percentage = null;
+        if (positionSize.compareTo(BigDecimal.ZERO) > 0) {
+            percentage = pnl.divide(positionSize, 2, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
+        }
+        return new CloseOut(positionSize, pnl, percentage);
+    }
+
+    // Leveraged change ratio at PRICE_SCALE: (price - entry) / entry rounded HALF_UP, times leverage, negated
+    // for SHORT; entry > 0. NOT_FIXED when the ratio does not fit a long.
+    static long leveragedChange(long entry, long price, int leverage, boolean isLong) {
+        long ratio = multiplyDivideHalfUp(subtractOrNotFixed(price, entry), PRICE_ONE, entry);
+        return multiplyOrNotFixed(isLong || ratio == NOT_FIXED ? ratio : -ratio, leverage);
+    }
+
+    static BigDecimal leveragedChange(BigDecimal entry, BigDecimal price, int leverage, boolean isLong) {
+        BigDecimal diff = isLong ? price.subtract(entry) : entry.subtract(price);
+        return diff.divide(entry, PRICE_SCALE, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(leverage));
+    }
+
+    // num / den rounded HALF_UP (ties away from zero), den > 0
+    static long divideHalfUp(long num, long den) {
+        long quotient = num / den;
+        long remainder = Math.abs(num % den);
+        if (remainder >= den - remainder) {
+            quotient += Long.signum(num);
+        }
+        return quotient;
+    }
+
+    // a * b / den rounded HALF_UP over the exact 128-bit product, den > 0; NOT_FIXED when an operand
+    // is NOT_FIXED or the quotient does not fit a long
+    static long multiplyDivideHalfUp(long a, long b, long den) {
+        if (a == NOT_FIXED || b == NOT_FIXED) {
+            return NOT_FIXED;
+        }
+        long x = Math.abs(a);
+        long y = Math.abs(b);
+        // Both below 2^63, so the signed high half is the unsigned one
+        long high = Math.multiplyHigh(x, y);
+        long low = x * y;
+        if (high >= den) {
+            return NOT_FIXED;
+        }
+        long quotient;
+        long remainder;
+        if (high == 0 && low >= 0) {
+            quotient = low / den;
+            remainder = low % den;
+        } else {
+            quotient = divideUnsigned(high, low, den);
+            // The true remainder is below den, so the low 64 bits are exact
+            remainder = low - quotient * den;
+        }
+        if (remainder >= den - remainder) {
+            quotient++;
+        }
+        if (quotient < 0) {
+            return NOT_FIXED;
+        }
+        return (a < 0) != (b < 0) ? -quotient : quotient;
+    }
+
+    // a * b, or NOT_FIXED when an operand is NOT_FIXED or the product does not fit a long
+    static long multiplyOrNotFixed(long a, long b) {
+        if (a == NOT_FIXED || b == NOT_FIXED) {
+            return NOT_FIXED;
+        }
+        long product = a * b;
+        return Math.multiplyHigh(a, b) == (product >> 63) ? product : NOT_FIXED;
+    }
+
+    // a - b, or NOT_FIXED when an operand is NOT_FIXED or the difference does not fit a long
+    static long subtractOrNotFixed(long a, long b) {
+        if (a == NOT_FIXED || b == NOT_FIXED) {
+            return NOT_FIXED;
+        }
+        long difference = a - b;
+        return ((a ^ b) & (a ^ difference)) < 0 ? NOT_FIXED : difference;
+    }
+
+    // Unsigned 128-bit (high, low) / divisor for high < divisor (Hacker's Delight divlu, 32-bit digits)
+    private static long divideUnsigned(long high, long low, long divisor) {
+        final long base = 1L << 32;
+        int shift = Long.numberOfLeadingZeros(divisor);
+        long v = divisor << shift;
+        long vHigh = v >>> 32;
+        long vLow = v & LOW_32_BITS;
+        long uHigh = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+        long uLow = low << shift;
+        long u1 = uLow >>> 32;
+        long u0 = uLow & LOW_32_BITS;
+
+        long q1 = Long.divideUnsigned(uHigh, vHigh);
+        long rhat = uHigh - q1 * vHigh;
+        while (Long.compareUnsigned(q1, base) >= 0 || Long.compareUnsigned(q1 * vLow, base * rhat + u1) > 0) {
+            q1--;
+            rhat += vHigh;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+        long u21 = uHigh * base + u1 - q1 * v;
+        long q0 = Long.divideUnsigned(u21, vHigh);
+        rhat = u21 - q0 * vHigh;
+        while (Long.compareUnsigned(q0, base) >= 0 || Long.compareUnsigned(q0 * vLow, base * rhat + u0) > 0) {
+            q0--;
+            rhat += vHigh;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+        return q1 * base + q0;
+    }
+
+    private static long unscaledOrNotFixed(BigDecimal value, int scale) {
+        if (value.scale() > scale) {
+            value = value.stripTrailingZeros();
+            if (value.scale() > scale) {
+                return NOT_FIXED;
+            }
+        }
+        if (value.precision() - value.scale() + scale > MAX_LONG_DIGITS) {
+            return NOT_FIXED;
+        }
+        return value.movePointRight(scale).longValue();
+    }
+
+    // Results of closing a trade; profitLossPercentage is null when the position size is not positive
+    public record CloseOut(BigDecimal positionSize, BigDecimal profitLoss, BigDecimal profitLossPercentage) {
+    }
+
+    /**
+     * An amount invested at an entry price and marked to a price, with leverage applied:
+     * profitLoss = amount * leveraged change, currentValue = amount + profitLoss (both at VALUE_SCALE).
+     * An entry price that is missing or not positive values the amount at cost.
+     * <p>
+     * Re-marking with {@link #at(BigDecimal, long)} reuses the unscaled amount and entry price,
+     * so revaluing many positions to a new price does not allocate BigDecimals.
+     */
+    public static final class Valuation {
+
+        private final BigDecimal amount;
+        private final BigDecimal entryPrice;
+        private final int leverage;
+        private final boolean isLong;
+        private final long amountUnscaled;
+        private final long entryUnscaled;
+        private final boolean fixed;
+        private final long profitLossUnscaled;
+        private final BigDecimal profitLoss;
+
+        private Valuation(BigDecimal amount, BigDecimal entryPrice, int leverage, boolean isLong,
+                          long amountUnscaled, long entryUnscaled, boolean fixed,
+                          long profitLossUnscaled, BigDecimal profitLoss) {
+            this.amount = amount;
+            this.entryPrice = entryPrice;
+            this.leverage = leverage;
+            this.isLong = isLong;
+            this.amountUnscaled = amountUnscaled;
+            this.entryUnscaled = entryUnscaled;
+            this.fixed = fixed;
+            this.profitLossUnscaled = profitLossUnscaled;
+            this.profitLoss = profitLoss;
+        }
+
+        // Value amount at price; a null price values it at the entry price
+        public static Valuation of(BigDecimal amount, BigDecimal entryPrice, BigDecimal price,
+                                   int leverage, TradeType tradeType) {
+            boolean isLong = tradeType == TradeType.LONG;
+            if (entryPrice == null || entryPrice.compareTo(BigDecimal.ZERO) <= 0) {
+                return new Valuation(amount, entryPrice, leverage, isLong, 0, 0, false, 0, BigDecimal.ZERO);
+            }
+            long amountUnscaled = unscaledOrNotFixed(amount, AMOUNT_SCALE);
+            long entryUnscaled = unscaledOrNotFixed(entryPrice, PRICE_SCALE);
+            boolean fixed = amountUnscaled != NOT_FIXED && entryUnscaled != NOT_FIXED;
+            Valuation atEntry = new Valuation(amount, entryPrice, leverage, isLong,
+                    amountUnscaled, entryUnscaled, fixed, 0, fixed ? null : BigDecimal.ZERO);
+            return price != null ? atEntry.at(price, toPriceUnscaled(price)) : atEntry;
+        }
+
+        // Re-mark to a new price; priceUnscaled is toPriceUnscaled(price), passed in so callers convert it once
+        public Valuation at(BigDecimal price, long priceUnscaled) {
+            if (entryPrice == null || entryPrice.compareTo(BigDecimal.ZERO) <= 0) {
+                return this;
+            }
+            if (fixed && priceUnscaled != NOT_FIXED) {
+                long pnl = multiplyOrNotFixed(amountUnscaled,
+                        leveragedChange(entryUnscaled, priceUnscaled, leverage, isLong));
+                if (pnl != NOT_FIXED) {
+                    return new Valuation(amount, entryPrice, leverage, isLong,
+                            amountUnscaled, entryUnscaled, true, pnl, null);
+                }
+            }
+            BigDecimal pnl = amount.multiply(leveragedChange(entryPrice, price, leverage, isLong));
+            return new Valuation(amount, entryPrice, leverage, isLong,
+                    amountUnscaled, entryUnscaled, fixed, 0, pnl);
+        }
+
+        // True when profitLossUnscaled() holds the result
+        public boolean isFixed() {
+            return profitLoss == null;
+        }
+
+        public long profitLossUnscaled() {
+            return profitLossUnscaled;
+        }
+
+        public BigDecimal profitLoss() {
+            return profitLoss != null ? profitLoss : BigDecimal.valueOf(profitLossUnscaled, VALUE_SCALE);
+        }
+
+        public BigDecimal currentValue() {
+            return amount.add(profitLoss());
+        }
+
+        public BigDecimal amount() {
+            return amount;
+        }
+    }
+}
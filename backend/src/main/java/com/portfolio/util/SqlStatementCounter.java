@@ -0,0 +1,80 @@
+package com.portfolio.util;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counts the SQL statements prepared and the entities loaded for one unit of work (a web
+ * request), fed by the Hibernate hooks in {@link com.portfolio.config.SqlCountingConfig}.
+ * Threads that have not started a unit are not counted.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static Counts start() {
+        Counts counts = new Counts();
+        CURRENT.set(counts);
+        return counts;
+    }
+
+    public static Counts current() {
+        return CURRENT.get();
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    public static void statementPrepared() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements.increment();
+        }
+    }
+
+    public static void entityLoaded() {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.entities.increment();
+        }
+    }
+
+    // Wrap work handed to another thread so its statements count towards the caller's unit
+    public static <T> Supplier<T> propagate(Supplier<T> work) {
+        Counts counts = CURRENT.get();
+        if (counts == null) {
+            return work;
+        }
+        return () -> {
+            Counts previous = CURRENT.get();
+            CURRENT.set(counts);
+            try {
+                return work.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    public static final class Counts {
+
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder entities = new LongAdder();
+
+        public long statements() {
+            return statements.sum();
+        }
+
+        public long entities() {
+            return entities.sum();
+        }
+    }
+}
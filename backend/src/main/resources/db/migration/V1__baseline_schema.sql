@@ -0,0 +1,56 @@
+-- Baseline schema as previously created by Hibernate (ddl-auto=update).
+-- Existing databases are baselined at this version and skip it.
+
+CREATE TABLE trades (
+    id                bigint         NOT NULL AUTO_INCREMENT,
+    coin              varchar(20)    NOT NULL,
+    trade_type        enum ('LONG','SHORT') NOT NULL,
+    entry_price       decimal(18,8)  NOT NULL,
+    exit_price        decimal(18,8),
+    current_price     decimal(18,8),
+    quantity          decimal(18,8)  NOT NULL,
+    leverage          integer        NOT NULL,
+    position_size     decimal(18,2),
+    profit_loss       decimal(18,2),
+    profit_loss_pct   decimal(8,2),
+    fees              decimal(18,2),
+    exchange          varchar(50),
+    status            enum ('OPEN','CLOSED') NOT NULL,
+    notes             TEXT,
+    stop_loss         decimal(18,8),
+    take_profit       decimal(18,8),
+    liquidation_price decimal(18,8),
+    tp_hit            bit            NOT NULL,
+    liquidated        bit            NOT NULL,
+    close_reason      enum ('TP_HIT','LIQUIDATED','MANUAL'),
+    trade_date        datetime(6)    NOT NULL,
+    close_date        datetime(6),
+    created_at        datetime(6),
+    updated_at        datetime(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE investments (
+    id                  bigint        NOT NULL AUTO_INCREMENT,
+    trade_id            bigint        NOT NULL,
+    amount              decimal(18,2) NOT NULL,
+    price_at_investment decimal(18,8) NOT NULL,
+    current_value       decimal(18,2),
+    profit_loss         decimal(18,2),
+    notes               TEXT,
+    investment_date     datetime(6)   NOT NULL,
+    created_at          datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_investments_trade FOREIGN KEY (trade_id) REFERENCES trades (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE exchange_wallets (
+    id            bigint        NOT NULL AUTO_INCREMENT,
+    exchange_name varchar(50)   NOT NULL,
+    total_balance decimal(18,2) NOT NULL,
+    notes         TEXT,
+    created_at    datetime(6),
+    updated_at    datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_exchange_wallets_exchange_name UNIQUE (exchange_name)
+) ENGINE=InnoDB;
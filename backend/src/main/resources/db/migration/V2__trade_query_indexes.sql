@@ -0,0 +1,29 @@
+-- Upper-cased copies of coin and exchange, maintained by Trade's lifecycle callbacks,
+-- so case-insensitive lookups compare a plain indexed column instead of UPPER(column)
+ALTER TABLE trades ADD COLUMN coin_key varchar(20);
+ALTER TABLE trades ADD COLUMN exchange_key varchar(50);
+
+UPDATE trades SET coin_key = UPPER(coin), exchange_key = UPPER(exchange);
+
+ALTER TABLE trades MODIFY coin_key varchar(20) NOT NULL;
+
+-- Realized P&L by close date range (status = 'CLOSED' AND close_date BETWEEN ...), covering profit_loss
+CREATE INDEX idx_trades_status_close_date ON trades (status, close_date, profit_loss);
+
+-- Winning/losing counts, sums and averages (status = 'CLOSED' AND profit_loss > 0 / < 0)
+CREATE INDEX idx_trades_status_profit_loss ON trades (status, profit_loss);
+
+-- Open/closed listings and keyset pages filtered by status, ordered by trade date
+CREATE INDEX idx_trades_status_trade_date ON trades (status, trade_date);
+
+-- Date range listings and the default keyset order (trade_date, id)
+CREATE INDEX idx_trades_trade_date ON trades (trade_date);
+
+-- Per-coin lookups and bulk price updates of open trades
+CREATE INDEX idx_trades_coin_key_status ON trades (coin_key, status);
+
+-- Per-exchange lookups and wallet usage of open trades, covering position_size
+CREATE INDEX idx_trades_exchange_key_status ON trades (exchange_key, status, position_size);
+
+-- Investments of a trade, newest first
+CREATE INDEX idx_investments_trade_date ON investments (trade_id, investment_date);
@@ -0,0 +1,14 @@
+-- Table-backed id generators for trades and investments. Unlike AUTO_INCREMENT ids they are
+-- allocated in blocks ahead of the insert, which lets Hibernate batch the inserts.
+-- Each row holds the last id handed out; Hibernate allocates the next block of ids after it
+-- (pooled-lo optimizer, see application.properties).
+
+CREATE TABLE id_generators (
+    name     varchar(64) NOT NULL,
+    next_val bigint      NOT NULL,
+    PRIMARY KEY (name)
+) ENGINE=InnoDB;
+
+INSERT INTO id_generators (name, next_val) SELECT 'trades', COALESCE(MAX(id), 0) FROM trades;
+
+INSERT INTO id_generators (name, next_val) SELECT 'investments', COALESCE(MAX(id), 0) FROM investments;
@@ -0,0 +1,14 @@
+-- Running totals over a trade's investment lots, maintained by InvestmentService on each
+-- lot change: coins bought (sum of amount / price per lot) and the weighted average entry
+-- price (invested amount / coins bought).
+
+ALTER TABLE trades ADD COLUMN invested_quantity decimal(18,8);
+
+ALTER TABLE trades ADD COLUMN average_entry_price decimal(18,8);
+
+UPDATE trades SET invested_quantity = (
+    SELECT SUM(ROUND(i.amount / i.price_at_investment, 8)) FROM investments i WHERE i.trade_id = trades.id
+) WHERE EXISTS (SELECT 1 FROM investments i WHERE i.trade_id = trades.id);
+
+UPDATE trades SET average_entry_price = ROUND(position_size / invested_quantity, 8)
+WHERE invested_quantity > 0;
@@ -0,0 +1,20 @@
+-- Realized P&L of closed trades rolled up per close day, coin and exchange (upper-case keys,
+-- '' for trades without an exchange). Kept in step with trades by DailyPnlService in the same
+-- transaction as each trade write; DailyPnlService.rebuild() recomputes it from trades.
+
+CREATE TABLE daily_pnl (
+    id           bigint        NOT NULL AUTO_INCREMENT,
+    pnl_date     date          NOT NULL,
+    coin_key     varchar(20)   NOT NULL,
+    exchange_key varchar(50)   NOT NULL,
+    realized_pnl decimal(18,2) NOT NULL,
+    trade_count  integer       NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_daily_pnl_day_coin_exchange UNIQUE (pnl_date, coin_key, exchange_key)
+) ENGINE=InnoDB;
+
+INSERT INTO daily_pnl (pnl_date, coin_key, exchange_key, realized_pnl, trade_count)
+SELECT CAST(close_date AS DATE), coin_key, COALESCE(exchange_key, ''), SUM(profit_loss), COUNT(*)
+FROM trades
+WHERE status = 'CLOSED' AND close_date IS NOT NULL AND profit_loss IS NOT NULL
+GROUP BY CAST(close_date AS DATE), coin_key, COALESCE(exchange_key, '');
@@ -0,0 +1,2 @@
+-- Trades closed by the trigger engine at their stop-loss level
+ALTER TABLE trades MODIFY close_reason enum ('TP_HIT','LIQUIDATED','MANUAL','SL_HIT');
@@ -0,0 +1,2 @@
+-- Optimistic lock version of a wallet, bumped by user edits and by balance increments
+ALTER TABLE exchange_wallets ADD COLUMN version bigint NOT NULL DEFAULT 0;
@@ -0,0 +1,33 @@
+-- Append-only ledger of wallet balance movements. A wallet's balance at any time is the sum of
+-- its entries up to then; wallet_balance_snapshots hold that sum at as_of so historical and
+-- current balances only add the entries after the nearest snapshot (see WalletLedgerService).
+
+CREATE TABLE wallet_ledger (
+    id         bigint        NOT NULL AUTO_INCREMENT,
+    wallet_id  bigint        NOT NULL,
+    entry_type varchar(20)   NOT NULL,
+    amount     decimal(18,2) NOT NULL,
+    trade_id   bigint,
+    note       varchar(255),
+    created_at datetime(6)   NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_wallet_ledger_wallet FOREIGN KEY (wallet_id) REFERENCES exchange_wallets (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_wallet_ledger_wallet_time ON wallet_ledger (wallet_id, created_at);
+
+CREATE TABLE wallet_balance_snapshots (
+    id        bigint        NOT NULL AUTO_INCREMENT,
+    wallet_id bigint        NOT NULL,
+    as_of     datetime(6)   NOT NULL,
+    balance   decimal(18,2) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_wallet_balance_snapshots_wallet_as_of UNIQUE (wallet_id, as_of),
+    CONSTRAINT fk_wallet_balance_snapshots_wallet FOREIGN KEY (wallet_id) REFERENCES exchange_wallets (id) ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Existing balances have no history; carry them over as one opening entry
+INSERT INTO wallet_ledger (wallet_id, entry_type, amount, note, created_at)
+SELECT id, 'ADJUSTMENT', total_balance, 'Balance carried over at ledger start', CURRENT_TIMESTAMP(6)
+FROM exchange_wallets
+WHERE total_balance <> 0;
@@ -0,0 +1,9 @@
+-- Upper-cased exchange name, maintained by ExchangeWallet's lifecycle callbacks; the natural id
+-- that trade closes resolve wallets by (case-insensitively, like trades.exchange_key)
+ALTER TABLE exchange_wallets ADD COLUMN exchange_key varchar(50);
+
+UPDATE exchange_wallets SET exchange_key = UPPER(exchange_name);
+
+ALTER TABLE exchange_wallets MODIFY exchange_key varchar(50) NOT NULL;
+
+ALTER TABLE exchange_wallets ADD CONSTRAINT uk_exchange_wallets_exchange_key UNIQUE (exchange_key);
@@ -0,0 +1,55 @@
+package com.portfolio.config;
+
+import com.portfolio.service.DataVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionalGetInterceptorTest {
+
+    private final DataVersion dataVersion = new DataVersion();
+
+    @Test
+    void unchangedDataIsNotModified() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean handled = new ConditionalGetInterceptor(dataVersion, false)
+                .preHandle(get(dataVersion.etag()), response, null);
+
+        assertThat(handled).isFalse();
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void datedReadIsRebuiltOnANewDay() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean handled = new ConditionalGetInterceptor(dataVersion, true)
+                .preHandle(get(dataVersion.etag(LocalDate.now().minusDays(1))), response, null);
+
+        assertThat(handled).isTrue();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(dataVersion.etag(LocalDate.now()));
+    }
+
+    @Test
+    void datedReadIsNotModifiedOnTheSameDay() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean handled = new ConditionalGetInterceptor(dataVersion, true)
+                .preHandle(get(dataVersion.etag(LocalDate.now())), response, null);
+
+        assertThat(handled).isFalse();
+        assertThat(response.getStatus()).isEqualTo(304);
+    }
+
+    private static MockHttpServletRequest get(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/trades/summary");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return request;
+    }
+}
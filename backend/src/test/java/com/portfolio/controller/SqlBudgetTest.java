@@ -0,0 +1,218 @@
+package com.portfolio.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.portfolio.config.SqlBudget;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Calls every {@link SqlBudget} endpoint over seeded data and checks the statements and entity
+ * loads SqlStatementCounter recorded for it (through SqlBudgetInterceptor) against its budget.
+ * Every request starts with cold Spring and second-level caches, so the counts are the most
+ * the endpoint needs. A statement budget is the measured count plus {@link #STATEMENT_HEADROOM},
+ * so it flags an extra query instead of hiding it, and must be lowered when the endpoint gets
+ * cheaper. Endpoints that measure 0 (served from memory) keep a budget of 0.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlBudgetTest {
+
+    private static final int STATEMENT_HEADROOM = 1;
+    private static final int SEEDED_TRADES = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    private final Map<Method, Measurement> measurements = new LinkedHashMap<>();
+
+    @Test
+    void everyBudgetedEndpointStaysWithinItsBudget() throws Exception {
+        long walletId = id(call(post("/api/wallets"), Map.of("exchangeName", "Binance", "totalBalance", 5000)));
+        call(post("/api/wallets"), Map.of("exchangeName", "Bybit", "totalBalance", 2500));
+        call(post("/api/wallets"), Map.of("exchangeName", "Kraken", "totalBalance", 1000));
+        long tradeId = 0;
+        for (int i = 0; i < SEEDED_TRADES; i++) {
+            tradeId = id(call(post("/api/trades"), trade(i)));
+        }
+        long closedTradeId = id(call(post("/api/trades"), trade(SEEDED_TRADES)));
+        long lotId = id(call(post("/api/trades/" + tradeId + "/investments"), lot(500)));
+        call(post("/api/trades/" + tradeId + "/investments"), lot(250));
+        call(patch("/api/trades/" + closedTradeId + "/close"), Map.of("exitPrice", 2100, "closeReason", "MANUAL"));
+        call(post("/api/wallets/" + walletId + "/ledger"), Map.of("entryType", "DEPOSIT", "amount", 100));
+
+        // Trades
+        call(get("/api/trades"));
+        call(get("/api/trades/page").param("status", "OPEN").param("limit", "5"));
+        call(get("/api/trades/" + tradeId));
+        call(get("/api/trades/coin/ETH"));
+        call(get("/api/trades/status/OPEN"));
+        call(get("/api/trades/type/LONG"));
+        call(get("/api/trades/date-range").param("startDate", "2024-01-01").param("endDate", "2024-12-31"));
+        call(get("/api/trades/summary"));
+        call(get("/api/trades/coins"));
+        call(get("/api/trades/exchanges"));
+        Map<String, Object> edited = objectMapper.convertValue(call(get("/api/trades/" + tradeId)), Map.class);
+        edited.put("notes", "Moved stop");
+        edited.put("stopLoss", 1900);
+        call(put("/api/trades/" + tradeId), edited);
+
+        // Investment lots
+        call(get("/api/trades/" + tradeId + "/investments"));
+        call(get("/api/trades/" + tradeId + "/investments/total"));
+        call(put("/api/trades/" + tradeId + "/investments/" + lotId), lot(750));
+        call(delete("/api/trades/" + tradeId + "/investments/" + lotId));
+
+        // Wallets
+        call(get("/api/wallets"));
+        call(get("/api/wallets/" + walletId));
+        call(get("/api/wallets/exchange/binance"));
+        call(get("/api/wallets/" + walletId + "/summary"));
+        call(get("/api/wallets/summaries"));
+        call(get("/api/wallets/total-balance"));
+        call(get("/api/wallets/" + walletId + "/ledger"));
+        call(get("/api/wallets/" + walletId + "/balance"));
+        call(get("/api/wallets/" + walletId + "/ledger/verify"));
+        JsonNode wallet = call(get("/api/wallets/" + walletId));
+        call(put("/api/wallets/" + walletId), Map.of("exchangeName", "Binance", "totalBalance", 6000,
+                "version", wallet.get("version").asLong()));
+
+        call(delete("/api/trades/" + closedTradeId));
+        long spareWalletId = id(call(post("/api/wallets"), Map.of("exchangeName", "Spare", "totalBalance", 10)));
+        call(delete("/api/wallets/" + spareWalletId));
+
+        Set<Method> budgeted = handlerMapping.getHandlerMethods().values().stream()
+                .filter(method -> method.hasMethodAnnotation(SqlBudget.class))
+                .map(HandlerMethod::getMethod)
+                .collect(Collectors.toSet());
+        assertThat(measurements.keySet()).as("endpoints measured").containsExactlyInAnyOrderElementsOf(budgeted);
+
+        SoftAssertions softly = new SoftAssertions();
+        measurements.forEach((method, measured) -> {
+            SqlBudget budget = method.getAnnotation(SqlBudget.class);
+            String endpoint = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            softly.assertThat((long) budget.statements()).as("%s statement budget", endpoint)
+                    .isEqualTo(measured.statements() == 0 ? 0 : measured.statements() + STATEMENT_HEADROOM);
+            if (budget.entities() >= 0) {
+                softly.assertThat(measured.entities()).as("%s entities", endpoint)
+                        .isLessThanOrEqualTo(budget.entities());
+            }
+        });
+        softly.assertAll();
+    }
+
+    private JsonNode call(MockHttpServletRequestBuilder request) throws Exception {
+        return call(request, null);
+    }
+
+    // Run a request with cold caches, record the most statements and entities its endpoint used and
+    // return the response body
+    private JsonNode call(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.getCache().evictAll();
+        if (body != null) {
+            request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(body));
+        }
+        String method = request.buildRequest(null).getMethod();
+        Map<String, Double> before = totals(method);
+
+        MvcResult result = mockMvc.perform(request).andReturn();
+        assertThat(result.getResponse().getStatus()).as("%s %s", method, result.getRequest().getRequestURI())
+                .isLessThan(300);
+
+        String uri = result.getRequest().getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE).toString();
+        Map<String, Double> after = totals(method);
+        Measurement measured = new Measurement(
+                (long) (after.get("statements:" + uri) - before.getOrDefault("statements:" + uri, 0.0)),
+                (long) (after.get("entities:" + uri) - before.getOrDefault("entities:" + uri, 0.0)));
+        measurements.merge(((HandlerMethod) result.getHandler()).getMethod(), measured, Measurement::max);
+
+        String content = result.getResponse().getContentAsString();
+        return content.isEmpty() ? objectMapper.nullNode() : objectMapper.readTree(content);
+    }
+
+    // Totals of the portfolio.sql.* summaries of one HTTP method, keyed by "statements:<uri>"
+    private Map<String, Double> totals(String method) {
+        Map<String, Double> totals = new LinkedHashMap<>();
+        for (String kind : new String[]{"statements", "entities"}) {
+            for (DistributionSummary summary : meterRegistry.find("portfolio.sql." + kind).tag("method", method).summaries()) {
+                totals.put(kind + ":" + summary.getId().getTag("uri"), summary.totalAmount());
+            }
+        }
+        return totals;
+    }
+
+    private static long id(JsonNode created) {
+        return created.get("id").asLong();
+    }
+
+    private static Map<String, Object> trade(int i) {
+        Map<String, Object> trade = new LinkedHashMap<>();
+        trade.put("coin", i % 3 == 0 ? "BTC" : "ETH");
+        trade.put("tradeType", i % 2 == 0 ? "LONG" : "SHORT");
+        trade.put("entryPrice", 2000 + i);
+        trade.put("quantity", 1);
+        trade.put("leverage", 5);
+        trade.put("exchange", i % 2 == 0 ? "Binance" : "Bybit");
+        trade.put("fees", 1.5);
+        trade.put("tradeDate", "2024-03-" + String.format("%02d", 1 + i) + "T10:00:00");
+        return trade;
+    }
+
+    private static Map<String, Object> lot(int amount) {
+        return Map.of("amount", amount, "priceAtInvestment", 1950, "investmentDate", "2024-03-20T10:00:00");
+    }
+
+    private record Measurement(long statements, long entities) {
+
+        Measurement max(Measurement other) {
+            return new Measurement(Math.max(statements, other.statements), Math.max(entities, other.entities));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.portfolio.repository;
+
+import com.portfolio.model.ExchangeWallet;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class ExchangeWalletRepositoryTest {
+
+    @Autowired
+    private ExchangeWalletRepository walletRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private ExchangeWallet binance;
+    private ExchangeWallet bybit;
+
+    @BeforeEach
+    void setUp() {
+        binance = entityManager.persist(wallet("Binance"));
+        bybit = entityManager.persist(wallet("bybit"));
+        entityManager.persist(wallet("Kraken"));
+        entityManager.persist(trade("BINANCE", TradeStatus.OPEN, "100"));
+        entityManager.persist(trade("binance", TradeStatus.OPEN, "250"));
+        entityManager.persist(trade("Binance", TradeStatus.CLOSED, "1000"));
+        entityManager.persist(trade("ByBit", TradeStatus.OPEN, "40"));
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void walletsWithOpenPositionsMatchTradesByExchangeKey() {
+        List<Object[]> rows = walletRepository.getWalletsWithOpenPositions();
+
+        assertThat(rows).extracting(row -> ((ExchangeWallet) row[0]).getExchangeName())
+                .containsExactly("Binance", "bybit", "Kraken");
+        assertThat(rows).extracting(row -> row[1]).containsExactly(2L, 1L, 0L);
+        assertThat(rows).extracting(row -> (BigDecimal) row[2])
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("350"), new BigDecimal("40"), BigDecimal.ZERO);
+    }
+
+    @Test
+    void walletWithOpenPositionsMatchesTradesByExchangeKey() {
+        List<Object[]> rows = walletRepository.getWalletWithOpenPositions(bybit.getId());
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)[1]).isEqualTo(1L);
+        assertThat((BigDecimal) rows.get(0)[2]).isEqualByComparingTo("40");
+        assertThat(walletRepository.getWalletWithOpenPositions(binance.getId()).get(0)[1]).isEqualTo(2L);
+    }
+
+    private static ExchangeWallet wallet(String exchangeName) {
+        ExchangeWallet wallet = new ExchangeWallet();
+        wallet.setExchangeName(exchangeName);
+        wallet.setTotalBalance(new BigDecimal("1000.00"));
+        return wallet;
+    }
+
+    // A trade whose position size (entry price x quantity) is positionSize
+    private static Trade trade(String exchange, TradeStatus status, String positionSize) {
+        Trade trade = new Trade();
+        trade.setCoin("BTC");
+        trade.setTradeType(TradeType.LONG);
+        trade.setEntryPrice(new BigDecimal(positionSize));
+        trade.setQuantity(BigDecimal.ONE);
+        trade.setLeverage(1);
+        trade.setExchange(exchange);
+        trade.setStatus(status);
+        trade.setPositionSize(new BigDecimal(positionSize));
+        trade.setTradeDate(LocalDateTime.of(2024, 1, 1, 0, 0));
+        if (status == TradeStatus.CLOSED) {
+            trade.setExitPrice(new BigDecimal(positionSize));
+            trade.setCloseDate(LocalDateTime.of(2024, 1, 2, 0, 0));
+        }
+        return trade;
+    }
+}
@@ -0,0 +1,219 @@
+package com.portfolio.repository;
+
+import com.portfolio.dto.TradeListView;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.jdbc.SqlConfig;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs each trade query, captures the SQL Hibernate generated for it and checks with EXPLAIN
+ * that the planner reads it through the index V2__trade_query_indexes.sql added for it.
+ * Plans come from H2 in MySQL mode over seeded data, so they show that each query is
+ * index-friendly as written (sargable predicates on the indexed columns), not MySQL's exact
+ * choice between overlapping indexes.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.portfolio.repository.TradeRepositoryIndexTest$SqlRecorder")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Sql(scripts = "/trade-index-seed.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_CLASS,
+        config = @SqlConfig(transactionMode = SqlConfig.TransactionMode.ISOLATED))
+class TradeRepositoryIndexTest {
+
+    private static final String COIN = "COIN7";
+    private static final String EXCHANGE = "Exchange3";
+    private static final LocalDateTime FROM = LocalDateTime.of(2023, 3, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2023, 3, 8, 0, 0);
+    // Any index leading with status serves an equality filter on status alone
+    private static final String STATUS_INDEX = "idx_trades_status_(trade_date|close_date|profit_loss)";
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clearRecordedSql() {
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    void findByCoinKeyUsesCoinKeyIndex() {
+        assertThat(plan(() -> tradeRepository.findByCoinKey(COIN, TradeListView.class)))
+                .contains("idx_trades_coin_key_status");
+    }
+
+    @Test
+    void findByCoinIgnoreCaseAndStatusUsesCoinKeyIndex() {
+        assertThat(plan(() -> tradeRepository.findByCoinIgnoreCaseAndStatus("coin7", TradeStatus.OPEN)))
+                .contains("idx_trades_coin_key_status");
+    }
+
+    @Test
+    void findOpenTradeTypesAndLeveragesByCoinUsesCoinKeyIndex() {
+        assertThat(plan(() -> tradeRepository.findOpenTradeTypesAndLeveragesByCoin(COIN)))
+                .contains("idx_trades_coin_key_status");
+    }
+
+    @Test
+    void updateCurrentPriceForOpenTradesUsesCoinKeyIndex() {
+        assertThat(plan(() -> tradeRepository.updateCurrentPriceForOpenTrades(COIN, BigDecimal.TEN, LocalDateTime.now())))
+                .contains("idx_trades_coin_key_status");
+    }
+
+    @Test
+    void findByExchangeIgnoreCaseUsesExchangeKeyIndex() {
+        assertThat(plan(() -> tradeRepository.findByExchangeIgnoreCase(EXCHANGE)))
+                .contains("idx_trades_exchange_key_status");
+    }
+
+    @Test
+    void findByExchangeIgnoreCaseAndStatusUsesExchangeKeyIndex() {
+        assertThat(plan(() -> tradeRepository.findByExchangeIgnoreCaseAndStatus(EXCHANGE, TradeStatus.OPEN)))
+                .contains("idx_trades_exchange_key_status");
+    }
+
+    @Test
+    void findByTradeDateBetweenUsesTradeDateIndex() {
+        assertThat(plan(() -> tradeRepository.findByTradeDateBetween(FROM, TO, TradeListView.class)))
+                .contains("idx_trades_trade_date");
+    }
+
+    @Test
+    void findByStatusUsesStatusIndex() {
+        assertThat(plan(() -> tradeRepository.findByStatus(TradeStatus.OPEN)))
+                .containsPattern(STATUS_INDEX);
+    }
+
+    // MySQL picks idx_trades_status_trade_date here to skip the sort; H2 does not cost the sort
+    // order, so any status index shows the filter is indexable
+    @Test
+    void statusFilteredPageUsesStatusIndex() {
+        Specification<Trade> spec = TradeSpecifications.hasStatus(TradeStatus.OPEN);
+        Sort sort = Sort.by("tradeDate", "id");
+        assertThat(plan(() -> tradeRepository.findBy(spec, q -> q.sortBy(sort).limit(50).scroll(ScrollPosition.keyset()))))
+                .containsPattern(STATUS_INDEX);
+    }
+
+    @Test
+    void totalProfitLossBetweenDatesUsesStatusCloseDateIndex() {
+        assertThat(plan(() -> tradeRepository.getTotalProfitLossBetweenDates(FROM, TO)))
+                .contains("idx_trades_status_close_date");
+    }
+
+    @Test
+    void streamClosedProfitLossUsesStatusCloseDateIndex() {
+        assertThat(plan(() -> {
+            try (Stream<Object[]> rows = tradeRepository.streamClosedProfitLoss(FROM, TO)) {
+                return rows.count();
+            }
+        })).contains("idx_trades_status_close_date");
+    }
+
+    @Test
+    void winningAndLosingAggregatesUseStatusProfitLossIndex() {
+        List<Runnable> queries = List.of(
+                tradeRepository::countWinningTrades,
+                tradeRepository::countLosingTrades,
+                tradeRepository::getAverageProfit,
+                tradeRepository::getAverageLoss,
+                tradeRepository::getTotalWinningProfit,
+                tradeRepository::getTotalLosingLoss);
+        for (Runnable query : queries) {
+            assertThat(plan(() -> {
+                query.run();
+                return null;
+            })).contains("idx_trades_status_profit_loss");
+        }
+    }
+
+    @Test
+    void statusTotalsUseStatusIndex() {
+        List<Runnable> queries = List.of(
+                tradeRepository::getTotalProfitLoss,
+                tradeRepository::countClosedTrades,
+                tradeRepository::getTotalOpenPositionSize,
+                tradeRepository::getTotalClosedPositionSize,
+                tradeRepository::findOpenCoinKeys);
+        for (Runnable query : queries) {
+            assertThat(plan(() -> {
+                query.run();
+                return null;
+            })).containsPattern(STATUS_INDEX);
+        }
+    }
+
+    @Test
+    void findTradeByIdUsesPrimaryKey() {
+        assertThat(plan(() -> tradeRepository.findTradeById(42L, TradeListView.class)))
+                .containsIgnoringCase("primary_key");
+    }
+
+    // Queries that read every trade by design: whole-table listings, the trade type filter
+    // (not selective enough to index) and the distinct coin/exchange lists. The planner may
+    // walk an index instead of the table, but never with a lookup condition.
+    @Test
+    void fullListingsReadEveryRow() {
+        List<Runnable> queries = List.of(
+                () -> tradeRepository.findAllBy(TradeListView.class),
+                () -> tradeRepository.findByTradeType(TradeType.LONG, TradeListView.class),
+                tradeRepository::getTotalPositionSize,
+                tradeRepository::getMostTradedCoins,
+                tradeRepository::findAllUniqueCoins,
+                tradeRepository::findAllUniqueExchanges);
+        for (Runnable query : queries) {
+            assertThat(plan(() -> {
+                query.run();
+                return null;
+            })).doesNotContainPattern("/\\* public\\.\\w+: ");
+        }
+    }
+
+    // EXPLAIN the last statement the query ran (H2 plans it without the parameter values)
+    private String plan(QueryCall query) {
+        SqlRecorder.STATEMENTS.clear();
+        query.run();
+        assertThat(SqlRecorder.STATEMENTS).as("statements run").isNotEmpty();
+        String sql = SqlRecorder.STATEMENTS.get(SqlRecorder.STATEMENTS.size() - 1);
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    @FunctionalInterface
+    private interface QueryCall {
+        Object run();
+    }
+
+    // Records the SQL of every statement Hibernate prepares
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
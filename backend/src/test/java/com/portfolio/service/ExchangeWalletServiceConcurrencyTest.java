@@ -0,0 +1,196 @@
+package com.portfolio.service;
+
+import com.portfolio.dto.WalletLedgerCheckDTO;
+import com.portfolio.model.CloseReason;
+import com.portfolio.model.ExchangeWallet;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeType;
+import com.portfolio.model.WalletLedgerEntry;
+import com.portfolio.model.WalletLedgerType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ExchangeWalletServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int CLOSES_PER_THREAD = 5;
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000.00");
+    // Long 1 ETH at 2000 closed at 2100 with 5x leverage, less 1.50 fees
+    private static final BigDecimal CLOSE_PNL = new BigDecimal("498.50");
+    private static final BigDecimal ADJUSTMENT = new BigDecimal("-1.25");
+    private static final BigDecimal EDIT = new BigDecimal("10.00");
+    private static final int EDITS_PER_THREAD = 5;
+    private static final int MAX_EDIT_ATTEMPTS = 200;
+
+    @Autowired
+    private ExchangeWalletService walletService;
+
+    @Autowired
+    private WalletLedgerService ledgerService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Test
+    void concurrentClosesAndAdjustmentsAllReachTheWallet() throws Exception {
+        ExchangeWallet wallet = walletService.createWallet(wallet("ConcurrentCloses"));
+        List<Long> tradeIds = openTrades("ConcurrentCloses", THREADS * CLOSES_PER_THREAD);
+
+        // Every thread closes its trades, each followed by a manual adjustment
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<Long> own = tradeIds.subList(t * CLOSES_PER_THREAD, (t + 1) * CLOSES_PER_THREAD);
+            workers.add(() -> {
+                for (Long tradeId : own) {
+                    tradeService.closeTrade(tradeId, new BigDecimal("2100"), CloseReason.MANUAL);
+                    ledgerService.addEntry(wallet.getId(), adjustment());
+                }
+                return null;
+            });
+        }
+        runConcurrently(workers);
+
+        int closes = tradeIds.size();
+        BigDecimal expected = OPENING_BALANCE
+                .add(CLOSE_PNL.multiply(BigDecimal.valueOf(closes)))
+                .add(ADJUSTMENT.multiply(BigDecimal.valueOf(closes)));
+        WalletLedgerCheckDTO check = ledgerService.verify(wallet.getId());
+        assertThat(check.getStoredBalance()).isEqualByComparingTo(expected);
+        assertThat(check.getLedgerBalance()).isEqualByComparingTo(expected);
+        // One balance increment per close (P&L and fee merged) and one per adjustment
+        assertThat(walletService.getWalletById(wallet.getId()).orElseThrow().getVersion())
+                .isEqualTo(2L * closes);
+    }
+
+    @Test
+    void editsRacingClosesConflictUntilMadeOnTheCurrentVersion() throws Exception {
+        ExchangeWallet wallet = walletService.createWallet(wallet("ConcurrentEdits"));
+        List<Long> tradeIds = openTrades("ConcurrentEdits", THREADS / 2 * CLOSES_PER_THREAD);
+
+        // Half the threads close trades; the other half raise the balance by EDIT from the copy they
+        // read, reloading and retrying on a conflict the way the UI does on a 409
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS / 2; t++) {
+            List<Long> own = tradeIds.subList(t * CLOSES_PER_THREAD, (t + 1) * CLOSES_PER_THREAD);
+            workers.add(() -> {
+                for (Long tradeId : own) {
+                    tradeService.closeTrade(tradeId, new BigDecimal("2100"), CloseReason.MANUAL);
+                }
+                return null;
+            });
+            workers.add(() -> {
+                for (int i = 0; i < EDITS_PER_THREAD; i++) {
+                    for (int attempt = 1; ; attempt++) {
+                        ExchangeWallet copy = walletService.getWalletById(wallet.getId()).orElseThrow();
+                        copy.setTotalBalance(copy.getTotalBalance().add(EDIT));
+                        try {
+                            walletService.updateWallet(wallet.getId(), copy);
+                            break;
+                        } catch (OptimisticLockingFailureException e) {
+                            assertThat(attempt).as("attempts of one edit").isLessThan(MAX_EDIT_ATTEMPTS);
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        runConcurrently(workers);
+
+        int closes = tradeIds.size();
+        int edits = THREADS / 2 * EDITS_PER_THREAD;
+        BigDecimal expected = OPENING_BALANCE
+                .add(CLOSE_PNL.multiply(BigDecimal.valueOf(closes)))
+                .add(EDIT.multiply(BigDecimal.valueOf(edits)));
+        WalletLedgerCheckDTO check = ledgerService.verify(wallet.getId());
+        assertThat(check.getStoredBalance()).isEqualByComparingTo(expected);
+        assertThat(check.getLedgerBalance()).isEqualByComparingTo(expected);
+        // Conflicting attempts wrote nothing: one version per close and per applied edit
+        assertThat(walletService.getWalletById(wallet.getId()).orElseThrow().getVersion())
+                .isEqualTo((long) closes + edits);
+    }
+
+    @Test
+    void updateWithoutVersionIsRejected() {
+        ExchangeWallet wallet = walletService.createWallet(wallet("Unversioned"));
+        ExchangeWallet copy = walletService.getWalletById(wallet.getId()).orElseThrow();
+        copy.setTotalBalance(new BigDecimal("5.00"));
+        copy.setVersion(null);
+
+        assertThatThrownBy(() -> walletService.updateWallet(wallet.getId(), copy))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(walletService.getWalletById(wallet.getId()).orElseThrow().getTotalBalance())
+                .isEqualByComparingTo(OPENING_BALANCE);
+    }
+
+    private List<Long> openTrades(String exchange, int count) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Trade trade = new Trade();
+            trade.setCoin("ETH");
+            trade.setTradeType(TradeType.LONG);
+            trade.setEntryPrice(new BigDecimal("2000"));
+            trade.setQuantity(BigDecimal.ONE);
+            trade.setLeverage(5);
+            trade.setExchange(exchange);
+            trade.setPositionSize(new BigDecimal("2000"));
+            trade.setFees(new BigDecimal("1.50"));
+            trade.setTradeDate(LocalDateTime.of(2024, 1, 1, 0, 0));
+            ids.add(tradeService.createTrade(trade).getId());
+        }
+        return ids;
+    }
+
+    // Start all workers together and wait for them
+    private static void runConcurrently(List<Callable<Void>> workers) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(workers.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> worker : workers) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return worker.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static ExchangeWallet wallet(String exchangeName) {
+        ExchangeWallet wallet = new ExchangeWallet();
+        wallet.setExchangeName(exchangeName);
+        wallet.setTotalBalance(OPENING_BALANCE);
+        return wallet;
+    }
+
+    private static WalletLedgerEntry adjustment() {
+        WalletLedgerEntry entry = new WalletLedgerEntry();
+        entry.setEntryType(WalletLedgerType.ADJUSTMENT);
+        entry.setAmount(ADJUSTMENT);
+        entry.setNote("Concurrent adjustment");
+        return entry;
+    }
+}
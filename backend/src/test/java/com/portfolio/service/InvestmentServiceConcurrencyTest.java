@@ -0,0 +1,153 @@
+package com.portfolio.service;
+
+import com.portfolio.dto.InvestmentDTO;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeType;
+import com.portfolio.repository.TradeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class InvestmentServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int LOTS_PER_THREAD = 10;
+
+    @Autowired
+    private InvestmentService investmentService;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private TradeRepository tradeRepository;
+
+    @Test
+    void concurrentLotChangesAllReachTheTradeTotals() throws Exception {
+        Trade trade = tradeService.createTrade(openTrade());
+        Long tradeId = trade.getId();
+
+        // Every thread adds its lots, then doubles the amount of each one it added
+        List<Callable<List<InvestmentDTO>>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            workers.add(() -> {
+                List<InvestmentDTO> lots = new ArrayList<>();
+                for (int i = 0; i < LOTS_PER_THREAD; i++) {
+                    lots.add(investmentService.addInvestment(tradeId, lot(thread, i, 1)));
+                }
+                List<InvestmentDTO> updated = new ArrayList<>();
+                for (int i = 0; i < LOTS_PER_THREAD; i++) {
+                    updated.add(investmentService.updateInvestment(lots.get(i).getId(), lot(thread, i, 2)));
+                }
+                return updated;
+            });
+        }
+        List<InvestmentDTO> lots = runConcurrently(workers);
+
+        BigDecimal invested = BigDecimal.ZERO;
+        BigDecimal quantity = BigDecimal.ZERO;
+        for (InvestmentDTO lot : lots) {
+            invested = invested.add(lot.getAmount());
+            quantity = quantity.add(lot.getAmount().divide(lot.getPriceAtInvestment(), 8, RoundingMode.HALF_UP));
+        }
+        Trade stored = tradeRepository.findById(tradeId).orElseThrow();
+        assertThat(lots).hasSize(THREADS * LOTS_PER_THREAD);
+        assertThat(stored.getPositionSize()).isEqualByComparingTo(invested);
+        assertThat(stored.getInvestedQuantity()).isEqualByComparingTo(quantity);
+        assertThat(stored.getAverageEntryPrice())
+                .isEqualByComparingTo(invested.divide(quantity, 8, RoundingMode.HALF_UP));
+        assertThat(investmentService.getTotalInvested(tradeId)).isEqualByComparingTo(invested);
+    }
+
+    @Test
+    void concurrentDeletesLeaveTheRemainingLots() throws Exception {
+        Trade trade = tradeService.createTrade(openTrade());
+        Long tradeId = trade.getId();
+        List<InvestmentDTO> lots = new ArrayList<>();
+        for (int i = 0; i < THREADS * 2; i++) {
+            lots.add(investmentService.addInvestment(tradeId, lot(0, i, 1)));
+        }
+
+        // Delete every other lot, one thread per lot
+        List<Callable<List<InvestmentDTO>>> workers = new ArrayList<>();
+        BigDecimal kept = BigDecimal.ZERO;
+        for (int i = 0; i < lots.size(); i++) {
+            InvestmentDTO lot = lots.get(i);
+            if (i % 2 == 0) {
+                workers.add(() -> {
+                    investmentService.deleteInvestment(lot.getId());
+                    return List.of();
+                });
+            } else {
+                kept = kept.add(lot.getAmount());
+            }
+        }
+        runConcurrently(workers);
+
+        Trade stored = tradeRepository.findById(tradeId).orElseThrow();
+        assertThat(stored.getPositionSize()).isEqualByComparingTo(kept);
+        assertThat(investmentService.getTotalInvested(tradeId)).isEqualByComparingTo(kept);
+    }
+
+    // Start all workers together and collect their results
+    private static <T> List<T> runConcurrently(List<Callable<List<T>>> workers) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(workers.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<T>>> futures = new ArrayList<>();
+            for (Callable<List<T>> worker : workers) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return worker.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<List<T>> future : futures) {
+                results.addAll(future.get());
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Trade openTrade() {
+        Trade trade = new Trade();
+        trade.setCoin("ETH");
+        trade.setTradeType(TradeType.LONG);
+        trade.setEntryPrice(new BigDecimal("2000"));
+        trade.setQuantity(BigDecimal.ONE);
+        trade.setLeverage(5);
+        trade.setExchange("Binance");
+        trade.setPositionSize(new BigDecimal("2000"));
+        trade.setTradeDate(LocalDateTime.of(2024, 1, 1, 0, 0));
+        return trade;
+    }
+
+    // A lot with an amount and price that vary by thread and index, scaled by factor
+    private static InvestmentDTO lot(int thread, int index, int factor) {
+        InvestmentDTO dto = new InvestmentDTO();
+        dto.setAmount(BigDecimal.valueOf((100 + thread * 10 + index) * factor).setScale(2));
+        dto.setPriceAtInvestment(BigDecimal.valueOf(1900 + thread * 7 + index * 3));
+        dto.setInvestmentDate(LocalDateTime.of(2024, 1, 2, 0, 0).plusMinutes(thread * 100 + index));
+        return dto;
+    }
+}
@@ -0,0 +1,126 @@
+package com.portfolio.service;
+
+import com.portfolio.dto.TradeSummaryDTO;
+import com.portfolio.model.CloseReason;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeType;
+import com.portfolio.repository.DailyPnlRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "app.summary.parallel-queries=true")
+@ActiveProfiles("test")
+class PortfolioSummaryAggregatorTest {
+
+    private static final int WRITERS = 4;
+    private static final int TRADES_PER_WRITER = 15;
+    private static final long REBUILD_PAUSE_MS = 10;
+
+    @Autowired
+    private PortfolioSummaryAggregator aggregator;
+
+    @Autowired
+    private TradeService tradeService;
+
+    @Autowired
+    private DailyPnlService dailyPnlService;
+
+    @Autowired
+    private DailyPnlRepository dailyPnlRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void writesCommittingDuringRebuildsAreNotLost() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            // Writers open and close trades while the summary is rebuilt over and over
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < TRADES_PER_WRITER; i++) {
+                        Trade trade = tradeService.createTrade(trade());
+                        if (i % 2 == 0) {
+                            tradeService.closeTrade(trade.getId(), new BigDecimal("2100"), CloseReason.MANUAL);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> rebuilds = pool.submit(() -> {
+                while (writing.get()) {
+                    aggregator.rebuild();
+                    Thread.sleep(REBUILD_PAUSE_MS);
+                }
+                return null;
+            });
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            writing.set(false);
+            rebuilds.get();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        TradeSummaryDTO kept = aggregator.getSummary();
+        aggregator.rebuild();
+        TradeSummaryDTO rebuilt = aggregator.getSummary();
+
+        assertThat(kept.getTotalTrades()).isEqualTo(rebuilt.getTotalTrades());
+        assertThat(kept.getOpenTrades()).isEqualTo(rebuilt.getOpenTrades());
+        assertThat(kept.getClosedTrades()).isEqualTo(rebuilt.getClosedTrades());
+        assertThat(kept.getWinningTrades()).isEqualTo(rebuilt.getWinningTrades());
+        assertThat(kept.getRealizedPnL()).isEqualByComparingTo(rebuilt.getRealizedPnL());
+        assertThat(kept.getTotalInvested()).isEqualByComparingTo(rebuilt.getTotalInvested());
+        assertThat(kept.getUnrealizedPnL()).isEqualByComparingTo(rebuilt.getUnrealizedPnL());
+        assertThat(kept.getTodayProfitLoss()).isEqualByComparingTo(rebuilt.getTodayProfitLoss());
+    }
+
+    @Test
+    void rollupRebuildRefreshesTheDailyTotals() {
+        Trade trade = tradeService.createTrade(trade());
+        tradeService.closeTrade(trade.getId(), new BigDecimal("2100"), CloseReason.MANUAL);
+        BigDecimal today = aggregator.getSummary().getTodayProfitLoss();
+        // The summary is rebuilt while the rollup is missing its rows
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> dailyPnlRepository.deleteAllRows());
+        aggregator.rebuild();
+        assertThat(aggregator.getSummary().getTodayProfitLoss()).isEqualByComparingTo(BigDecimal.ZERO);
+
+        dailyPnlService.rebuild();
+
+        assertThat(aggregator.getSummary().getTodayProfitLoss()).isEqualByComparingTo(today);
+    }
+
+    private static Trade trade() {
+        Trade trade = new Trade();
+        trade.setCoin("ETH");
+        trade.setTradeType(TradeType.LONG);
+        trade.setEntryPrice(new BigDecimal("2000"));
+        trade.setQuantity(BigDecimal.ONE);
+        trade.setLeverage(5);
+        trade.setExchange("Rebuilds");
+        trade.setPositionSize(new BigDecimal("2000"));
+        trade.setFees(new BigDecimal("1.50"));
+        trade.setTradeDate(LocalDateTime.of(2024, 1, 1, 0, 0));
+        return trade;
+    }
+}
@@ -0,0 +1,283 @@
+package com.portfolio.service;
+
+import com.portfolio.event.PriceTickEvent;
+import com.portfolio.event.TradeChangedEvent;
+import com.portfolio.model.CloseReason;
+import com.portfolio.model.Trade;
+import com.portfolio.model.TradeStatus;
+import com.portfolio.model.TradeType;
+import com.portfolio.repository.TradeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TriggerEngineTest {
+
+    // The trades table: the engine reads copies, closes mark the stored trade closed
+    private final Map<Long, Trade> stored = new HashMap<>();
+    private final TradeRepository tradeRepository = mock(TradeRepository.class);
+    private final TradeService tradeService = mock(TradeService.class);
+    private TriggerEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(tradeRepository.findById(anyLong())).thenAnswer(invocation ->
+                Optional.ofNullable(stored.get(invocation.<Long>getArgument(0))).map(TriggerEngineTest::copy));
+        when(tradeRepository.findByStatus(TradeStatus.OPEN)).thenAnswer(invocation -> stored.values().stream()
+                .filter(trade -> trade.getStatus() == TradeStatus.OPEN)
+                .map(TriggerEngineTest::copy)
+                .toList());
+        when(tradeService.closeTrade(anyLong(), any(), any())).thenAnswer(invocation -> {
+            Trade trade = stored.get(invocation.<Long>getArgument(0));
+            trade.setStatus(TradeStatus.CLOSED);
+            trade.setExitPrice(invocation.getArgument(1));
+            trade.setCloseReason(invocation.getArgument(2));
+            return copy(trade);
+        });
+        engine = new TriggerEngine(tradeRepository, tradeService, transactionManager, true);
+    }
+
+    @ParameterizedTest(name = "{0} {1} at {2}: not at {3}, at {4}")
+    @CsvSource({
+            "LONG,  SL_HIT,     90,  91,  89",
+            "LONG,  LIQUIDATED, 80,  81,  79",
+            "LONG,  TP_HIT,     120, 119, 121",
+            "SHORT, SL_HIT,     110, 109, 111",
+            "SHORT, LIQUIDATED, 120, 119, 121",
+            "SHORT, TP_HIT,     80,  81,  79"
+    })
+    void levelFiresOnlyOnceThePriceCrossesItFromTheTradesSide(TradeType tradeType, CloseReason reason,
+                                                               BigDecimal level, BigDecimal before, BigDecimal beyond) {
+        Trade trade = trade(1L, tradeType);
+        setLevel(trade, reason, level);
+        save(trade);
+
+        tick(before);
+        verify(tradeService, never()).closeTrade(anyLong(), any(), any());
+
+        tick(beyond);
+        verify(tradeService).closeTrade(1L, level, reason);
+    }
+
+    @Test
+    void levelReachedExactlyFires() {
+        Trade trade = trade(1L, TradeType.LONG);
+        trade.setStopLoss(new BigDecimal("90.00"));
+        save(trade);
+
+        tick(new BigDecimal("90"));
+
+        verify(tradeService).closeTrade(1L, new BigDecimal("90.00"), CloseReason.SL_HIT);
+    }
+
+    @Test
+    void stopLossWinsOverLiquidationWinsOverTakeProfit() {
+        // A gap down through both the stop and the liquidation price
+        Trade gapped = trade(1L, TradeType.LONG);
+        gapped.setStopLoss(new BigDecimal("90"));
+        gapped.setLiquidationPrice(new BigDecimal("80"));
+        save(gapped);
+        // Levels set so that one price crosses the liquidation and the take-profit
+        Trade crossedLevels = trade(2L, TradeType.SHORT);
+        crossedLevels.setLiquidationPrice(new BigDecimal("100"));
+        crossedLevels.setTakeProfit(new BigDecimal("105"));
+        save(crossedLevels);
+
+        tick(new BigDecimal("102"));
+        tick(new BigDecimal("70"));
+
+        verify(tradeService).closeTrade(1L, new BigDecimal("90"), CloseReason.SL_HIT);
+        verify(tradeService).closeTrade(2L, new BigDecimal("100"), CloseReason.LIQUIDATED);
+        verify(tradeService, times(2)).closeTrade(anyLong(), any(), any());
+    }
+
+    @Test
+    void tradeOnlyClosesOnce() {
+        Trade trade = trade(1L, TradeType.LONG);
+        trade.setStopLoss(new BigDecimal("90"));
+        save(trade);
+
+        tick(new BigDecimal("89"));
+        tick(new BigDecimal("88"));
+
+        verify(tradeService, times(1)).closeTrade(anyLong(), any(), any());
+    }
+
+    @Test
+    void updatedLevelsReplaceTheOldOnes() {
+        Trade trade = trade(1L, TradeType.LONG);
+        trade.setStopLoss(new BigDecimal("90"));
+        trade.setTakeProfit(new BigDecimal("120"));
+        save(trade);
+
+        trade.setStopLoss(new BigDecimal("85"));
+        trade.setTakeProfit(null);
+        save(trade);
+        tick(new BigDecimal("89"));
+        tick(new BigDecimal("130"));
+        verify(tradeService, never()).closeTrade(anyLong(), any(), any());
+
+        tick(new BigDecimal("85"));
+        verify(tradeService).closeTrade(1L, new BigDecimal("85"), CloseReason.SL_HIT);
+    }
+
+    @Test
+    void closedAndDeletedTradesAreDropped() {
+        Trade closed = trade(1L, TradeType.LONG);
+        closed.setStopLoss(new BigDecimal("90"));
+        save(closed);
+        Trade deleted = trade(2L, TradeType.LONG);
+        deleted.setStopLoss(new BigDecimal("90"));
+        save(deleted);
+
+        closed.setStatus(TradeStatus.CLOSED);
+        save(closed);
+        stored.remove(2L);
+        engine.onTradeChanged(TradeChangedEvent.deleted(TradeChangedEvent.State.of(deleted), deleted));
+        tick(new BigDecimal("50"));
+
+        verify(tradeService, never()).closeTrade(anyLong(), any(), any());
+    }
+
+    @Test
+    void rebuildLoadsTheOpenTrades() {
+        Trade open = trade(1L, TradeType.SHORT);
+        open.setStopLoss(new BigDecimal("110"));
+        stored.put(1L, copy(open));
+        Trade closed = trade(2L, TradeType.SHORT);
+        closed.setStopLoss(new BigDecimal("110"));
+        closed.setStatus(TradeStatus.CLOSED);
+        stored.put(2L, copy(closed));
+
+        engine.rebuild();
+        tick(new BigDecimal("111"));
+
+        verify(tradeService).closeTrade(1L, new BigDecimal("110"), CloseReason.SL_HIT);
+        verify(tradeService, times(1)).closeTrade(anyLong(), any(), any());
+    }
+
+    @Test
+    void failedCloseLeavesTheTradeWatched() {
+        Trade trade = trade(1L, TradeType.LONG);
+        trade.setStopLoss(new BigDecimal("90"));
+        save(trade);
+        doThrow(new QueryTimeoutException("lock wait timeout"))
+                .doAnswer(invocation -> {
+                    stored.get(1L).setStatus(TradeStatus.CLOSED);
+                    return copy(stored.get(1L));
+                })
+                .when(tradeService).closeTrade(1L, new BigDecimal("90"), CloseReason.SL_HIT);
+
+        tick(new BigDecimal("89"));
+        tick(new BigDecimal("88"));
+
+        verify(tradeService, times(2)).closeTrade(1L, new BigDecimal("90"), CloseReason.SL_HIT);
+        tick(new BigDecimal("87"));
+        verify(tradeService, times(2)).closeTrade(anyLong(), any(), any());
+    }
+
+    @Test
+    void levelMovedAfterTheTickTookItIsNotUsed() {
+        Trade trade = trade(1L, TradeType.LONG);
+        trade.setStopLoss(new BigDecimal("90"));
+        save(trade);
+        // Committed, but its change event not yet delivered when the tick arrives
+        stored.get(1L).setStopLoss(new BigDecimal("85"));
+
+        tick(new BigDecimal("89"));
+        verify(tradeService, never()).closeTrade(anyLong(), any(), any());
+
+        // The trade is watched at its new level
+        tick(new BigDecimal("84"));
+        verify(tradeService).closeTrade(1L, new BigDecimal("85"), CloseReason.SL_HIT);
+    }
+
+    @Test
+    void levelClearedAfterTheTickTookItIsNotUsed() {
+        Trade trade = trade(1L, TradeType.SHORT);
+        trade.setStopLoss(new BigDecimal("110"));
+        trade.setTakeProfit(new BigDecimal("80"));
+        save(trade);
+        stored.get(1L).setStopLoss(null);
+
+        tick(new BigDecimal("115"));
+        tick(new BigDecimal("150"));
+        verify(tradeService, never()).closeTrade(anyLong(), any(), any());
+
+        tick(new BigDecimal("79"));
+        verify(tradeService).closeTrade(1L, new BigDecimal("80"), CloseReason.TP_HIT);
+    }
+
+    @Test
+    void ticksOfOtherCoinsAreIgnored() {
+        Trade trade = trade(1L, TradeType.LONG);
+        trade.setStopLoss(new BigDecimal("90"));
+        save(trade);
+
+        engine.onPriceTick(new PriceTickEvent("BTC", new BigDecimal("1")));
+
+        verify(tradeService, never()).closeTrade(anyLong(), any(), any());
+    }
+
+    // Commit a trade change: store it and deliver its event
+    private void save(Trade trade) {
+        stored.put(trade.getId(), copy(trade));
+        engine.onTradeChanged(TradeChangedEvent.saved(null, copy(trade)));
+    }
+
+    private void tick(BigDecimal price) {
+        engine.onPriceTick(new PriceTickEvent("eth", price));
+    }
+
+    private static void setLevel(Trade trade, CloseReason reason, BigDecimal price) {
+        switch (reason) {
+            case SL_HIT -> trade.setStopLoss(price);
+            case TP_HIT -> trade.setTakeProfit(price);
+            default -> trade.setLiquidationPrice(price);
+        }
+    }
+
+    private static Trade trade(Long id, TradeType tradeType) {
+        Trade trade = new Trade();
+        trade.setId(id);
+        trade.setCoin("ETH");
+        trade.setTradeType(tradeType);
+        trade.setEntryPrice(new BigDecimal("100"));
+        trade.setQuantity(BigDecimal.ONE);
+        trade.setLeverage(5);
+        trade.setStatus(TradeStatus.OPEN);
+        return trade;
+    }
+
+    private static Trade copy(Trade trade) {
+        Trade copy = trade(trade.getId(), trade.getTradeType());
+        copy.setCoin(trade.getCoin());
+        copy.setStatus(trade.getStatus());
+        copy.setStopLoss(trade.getStopLoss());
+        copy.setTakeProfit(trade.getTakeProfit());
+        copy.setLiquidationPrice(trade.getLiquidationPrice());
+        copy.setExitPrice(trade.getExitPrice());
+        copy.setCloseReason(trade.getCloseReason());
+        return copy;
+    }
+}
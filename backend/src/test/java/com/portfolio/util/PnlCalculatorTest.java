@@ -0,0 +1,149 @@
+package com.portfolio.util;
+
+import com.portfolio.model.TradeType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PnlCalculatorTest {
+
+    private static final BigInteger LONG_MIN = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+
+    @Test
+    void valuationStaysFixedForLargeNotionalsAndPriceMoves() {
+        PnlCalculator.Valuation valuation = PnlCalculator.Valuation.of(
+                new BigDecimal("30000.00"), new BigDecimal("60000"), new BigDecimal("61000"), 10, TradeType.LONG);
+
+        assertThat(valuation.isFixed()).isTrue();
+        assertThat(valuation.profitLoss()).isEqualByComparingTo(reference(
+                new BigDecimal("30000.00"), new BigDecimal("60000"), new BigDecimal("61000"), 10, true));
+    }
+
+    @Test
+    void valuationMatchesBigDecimal() {
+        SplittableRandom random = new SplittableRandom(6);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 10_000_000_000L), PnlCalculator.AMOUNT_SCALE);
+            BigDecimal entry = price(random);
+            BigDecimal price = price(random);
+            int leverage = random.nextInt(1, 126);
+            boolean isLong = random.nextBoolean();
+
+            PnlCalculator.Valuation valuation = PnlCalculator.Valuation.of(
+                    amount, entry, price, leverage, isLong ? TradeType.LONG : TradeType.SHORT);
+
+            assertThat(valuation.profitLoss())
+                    .as("%s at %s -> %s x%d", amount, entry, price, leverage)
+                    .isEqualByComparingTo(reference(amount, entry, price, leverage, isLong));
+        }
+    }
+
+    @Test
+    void closeOutStaysFixedForUsualTrades() {
+        PnlCalculator.CloseOut closeOut = PnlCalculator.closeOut(new BigDecimal("60000.00000000"),
+                new BigDecimal("61000.00000000"), new BigDecimal("0.50000000"), 10, TradeType.LONG,
+                new BigDecimal("12.50"));
+
+        assertThat(closeOut.positionSize()).isEqualByComparingTo("30000");
+        assertThat(closeOut.profitLoss()).isEqualByComparingTo("4987.50");
+        assertThat(closeOut.profitLossPercentage()).isEqualByComparingTo("17.00");
+        assertThat(closeOut.positionSize().unscaledValue().bitLength()).isLessThan(64);
+    }
+
+    @Test
+    void closeOutMatchesBigDecimal() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal entry = price(random);
+            BigDecimal exit = price(random);
+            BigDecimal quantity = BigDecimal.valueOf(random.nextLong(1, 100_000_000_000_000L), PnlCalculator.PRICE_SCALE);
+            int leverage = random.nextInt(1, 126);
+            TradeType tradeType = random.nextBoolean() ? TradeType.LONG : TradeType.SHORT;
+            BigDecimal fees = random.nextBoolean() ? BigDecimal.valueOf(random.nextLong(0, 1_000_000), 2) : null;
+
+            PnlCalculator.CloseOut closeOut = PnlCalculator.closeOut(entry, exit, quantity, leverage, tradeType, fees);
+
+            BigDecimal diff = tradeType == TradeType.LONG ? exit.subtract(entry) : entry.subtract(exit);
+            BigDecimal positionSize = entry.multiply(quantity);
+            BigDecimal pnl = diff.multiply(quantity).multiply(BigDecimal.valueOf(leverage));
+            if (fees != null) {
+                pnl = pnl.subtract(fees);
+            }
+            BigDecimal percentage = pnl.divide(positionSize, 2, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
+            String trade = entry + " -> " + exit + " x " + quantity;
+            assertThat(closeOut.positionSize()).as(trade).isEqualByComparingTo(positionSize);
+            assertThat(closeOut.profitLoss()).as(trade).isEqualByComparingTo(pnl);
+            assertThat(closeOut.profitLossPercentage()).as(trade).isEqualByComparingTo(percentage);
+        }
+    }
+
+    @Test
+    void realizedPnlMatchesBigDecimal() {
+        SplittableRandom random = new SplittableRandom(8);
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 10_000_000_000L), PnlCalculator.AMOUNT_SCALE);
+            BigDecimal entry = price(random);
+            BigDecimal exit = price(random);
+            int leverage = random.nextInt(1, 126);
+            boolean isLong = random.nextBoolean();
+            BigDecimal fees = BigDecimal.valueOf(random.nextLong(0, 1_000_000), 2);
+
+            BigDecimal pnl = PnlCalculator.realizedPnl(
+                    amount, entry, exit, leverage, isLong ? TradeType.LONG : TradeType.SHORT, fees);
+
+            assertThat(pnl).isEqualTo(reference(amount, entry, exit, leverage, isLong)
+                    .subtract(fees).setScale(PnlCalculator.AMOUNT_SCALE, RoundingMode.HALF_UP));
+        }
+    }
+
+    @Test
+    void multiplyDivideHalfUpMatchesBigInteger() {
+        SplittableRandom random = new SplittableRandom(9);
+        for (int i = 0; i < 1_000_000; i++) {
+            long a = random.nextLong() >> random.nextInt(64);
+            long b = random.nextLong() >> random.nextInt(64);
+            long den = Math.max(1, random.nextLong(Long.MAX_VALUE) >> random.nextInt(63));
+            if (a == Long.MIN_VALUE || b == Long.MIN_VALUE) {
+                continue;
+            }
+
+            BigInteger[] qr = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))
+                    .divideAndRemainder(BigInteger.valueOf(den));
+            BigInteger expected = qr[0];
+            if (qr[1].abs().shiftLeft(1).compareTo(BigInteger.valueOf(den)) >= 0) {
+                expected = expected.add(BigInteger.valueOf(qr[1].signum()));
+            }
+            long expectedLong = expected.compareTo(LONG_MIN) <= 0 || expected.compareTo(LONG_MAX) > 0
+                    ? PnlCalculator.NOT_FIXED : expected.longValue();
+
+            assertThat(PnlCalculator.multiplyDivideHalfUp(a, b, den)).as("%d * %d / %d", a, b, den)
+                    .isEqualTo(expectedLong);
+        }
+    }
+
+    @Test
+    void checkedArithmeticReportsOverflowAsNotFixed() {
+        assertThat(PnlCalculator.multiplyOrNotFixed(Long.MAX_VALUE, 2)).isEqualTo(PnlCalculator.NOT_FIXED);
+        assertThat(PnlCalculator.multiplyOrNotFixed(-4_000_000_000L, 2_000_000_000L)).isEqualTo(-8_000_000_000_000_000_000L);
+        assertThat(PnlCalculator.subtractOrNotFixed(Long.MIN_VALUE + 1, 2)).isEqualTo(PnlCalculator.NOT_FIXED);
+        assertThat(PnlCalculator.subtractOrNotFixed(PnlCalculator.NOT_FIXED, 0)).isEqualTo(PnlCalculator.NOT_FIXED);
+        assertThat(PnlCalculator.toPriceUnscaled(new BigDecimal("0.123456789"))).isEqualTo(PnlCalculator.NOT_FIXED);
+        assertThat(PnlCalculator.toPriceUnscaled(new BigDecimal("1.5000000000"))).isEqualTo(150_000_000L);
+    }
+
+    // Prices from fractions of a cent to six figures, at PRICE_SCALE
+    private static BigDecimal price(SplittableRandom random) {
+        return BigDecimal.valueOf(random.nextLong(1, 10_000_000_000_000L) >> random.nextInt(40), PnlCalculator.PRICE_SCALE)
+                .max(BigDecimal.valueOf(1, PnlCalculator.PRICE_SCALE));
+    }
+
+    private static BigDecimal reference(BigDecimal amount, BigDecimal entry, BigDecimal price, int leverage, boolean isLong) {
+        return amount.multiply(PnlCalculator.leveragedChange(entry, price, leverage, isLong));
+    }
+}
@@ -0,0 +1,17 @@
+-- 20,000 trades spread over 40 coins, 5 exchanges, both statuses (10% open) and three years,
+-- then fresh selectivity statistics so the planner costs the indexes against realistic data
+INSERT INTO trades (coin, coin_key, trade_type, entry_price, exit_price, current_price, quantity, leverage,
+                    position_size, profit_loss, exchange, exchange_key, status, tp_hit, liquidated,
+                    trade_date, close_date, created_at, updated_at)
+SELECT 'Coin' || MOD(x, 40), 'COIN' || MOD(x, 40),
+       CASE WHEN MOD(x, 2) = 0 THEN 'LONG' ELSE 'SHORT' END,
+       100, CASE WHEN MOD(x, 10) = 0 THEN NULL ELSE 110 END, 105, 1, 1 + MOD(x, 20),
+       100, CASE WHEN MOD(x, 10) = 0 THEN NULL ELSE MOD(x, 200) - 100 END,
+       'Exchange' || MOD(x, 5), 'EXCHANGE' || MOD(x, 5),
+       CASE WHEN MOD(x, 10) = 0 THEN 'OPEN' ELSE 'CLOSED' END, FALSE, FALSE,
+       DATEADD('MINUTE', x * 79, TIMESTAMP '2022-01-01 00:00:00'),
+       CASE WHEN MOD(x, 10) = 0 THEN NULL ELSE DATEADD('MINUTE', x * 79 + 600, TIMESTAMP '2022-01-01 00:00:00') END,
+       CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+FROM SYSTEM_RANGE(1, 20000) AS r (x);
+
+ANALYZE;
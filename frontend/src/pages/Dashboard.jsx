@@ -1,5 +1,5 @@
 import { useState, useEffect } from 'react';
-import { tradeService } from '../services/api';
+import { tradeService, streamService } from '../services/api';
 import { priceService } from '../services/priceService';
 
 function Dashboard() {
@@ -14,6 +14,16 @@ function Dashboard() {
     fetchData();
   }, []);
 
+  // Keep summary and trades in sync with the backend stream
+  useEffect(() => {
+    return streamService.subscribePortfolio({
+      summary: setSummary,
+      trade: (delta) => setTrades(prev => prev.map(t => (t.id === delta.id ? { ...t, ...delta } : t))),
+      'trade-deleted': (delta) => setTrades(prev => prev.filter(t => t.id !== delta.id)),
+      resync: () => fetchData(),
+    });
+  }, []);
+
   // Fetch live prices when trades are loaded
   useEffect(() => {
     if (trades.length > 0) {
@@ -28,7 +38,7 @@ function Dashboard() {
       setLoading(true);
       const [summaryData, tradesData] = await Promise.all([
         tradeService.getTradeSummary(),
-        tradeService.getAllTrades()
+        tradeService.getAllTrades('card')
       ]);
       setSummary(summaryData);
       setTrades(tradesData);
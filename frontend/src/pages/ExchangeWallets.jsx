@@ -45,7 +45,8 @@ function ExchangeWallets() {
       };
 
       if (editingWallet) {
-        await walletService.updateWallet(editingWallet.id, walletData);
+        // The version makes the backend reject the edit if the wallet changed since it was loaded
+        await walletService.updateWallet(editingWallet.id, { ...walletData, version: editingWallet.version });
       } else {
         await walletService.createWallet(walletData);
       }
@@ -55,6 +56,13 @@ function ExchangeWallets() {
       setEditingWallet(null);
       fetchWallets();
     } catch (err) {
+      if (err.response?.status === 409) {
+        alert('This wallet was changed in the meantime (e.g. by a closed trade). Please review the new balance and save again.');
+        setShowAddForm(false);
+        setEditingWallet(null);
+        fetchWallets();
+        return;
+      }
       alert('Failed to save wallet');
       console.error(err);
     }
@@ -156,6 +156,7 @@ function TradeDetail() {
   const getCloseReasonText = (reason) => {
     switch (reason) {
       case 'TP_HIT': return '🎯 TP Hit';
+      case 'SL_HIT': return '🛑 SL Hit';
       case 'LIQUIDATED': return '💀 Liquidated';
       case 'MANUAL': return '✋ Manual Close';
       default: return reason || '-';
@@ -201,6 +201,7 @@ function TradeList() {
   const getCloseReasonText = (reason) => {
     switch (reason) {
       case 'TP_HIT': return '🎯 TP';
+      case 'SL_HIT': return '🛑 SL';
       case 'LIQUIDATED': return '💀 Liq';
       case 'MANUAL': return '✋';
       default: return '';
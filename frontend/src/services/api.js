@@ -11,9 +11,15 @@ const api = axios.create({
 
 // Trade API services
 export const tradeService = {
-  // Get all trades
-  getAllTrades: async () => {
-    const response = await api.get('/trades');
+  // Get all trades; view 'detail', 'list' or 'card' returns a lighter read model
+  getAllTrades: async (view) => {
+    const response = await api.get('/trades', { params: view ? { view } : undefined });
+    return response.data;
+  },
+
+  // Get one page of trades (filters: coin, status, type, exchange, from, to; sort, order, limit, cursor)
+  getTradesPage: async (params) => {
+    const response = await api.get('/trades/page', { params });
     return response.data;
   },
 
@@ -41,7 +47,7 @@ export const tradeService = {
     return response.data;
   },
 
-  // Close trade with reason (TP_HIT, LIQUIDATED, MANUAL)
+  // Close trade with reason (TP_HIT, SL_HIT, LIQUIDATED, MANUAL)
   closeTrade: async (id, exitPrice, closeReason) => {
     const response = await api.patch(`/trades/${id}/close`, { exitPrice, closeReason });
     return response.data;
@@ -176,4 +182,18 @@ export const walletService = {
   },
 };
 
+// Live portfolio stream (Server-Sent Events)
+export const streamService = {
+  // Subscribe to summary/trade/trade-deleted/resync events; returns an unsubscribe function
+  subscribePortfolio: (handlers) => {
+    const source = new EventSource(`${API_BASE_URL}/stream/portfolio`);
+    ['summary', 'trade', 'trade-deleted', 'resync'].forEach((name) => {
+      if (handlers[name]) {
+        source.addEventListener(name, (event) => handlers[name](JSON.parse(event.data)));
+      }
+    });
+    return () => source.close();
+  },
+};
+
 export default api;